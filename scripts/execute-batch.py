@@ -1,4 +1,5 @@
 import os
+import socket
 import subprocess
 import sys
 
@@ -9,6 +10,18 @@ JAR_FILE = 'collections-explorer-0.0.1-SNAPSHOT-jar-with-dependencies.jar'
 
 DIRECTORY = 'dataset/'
 
+# Port of a resident explorer (java -jar JAR_FILE serve), if any
+SERVER_PORT = int(sys.argv[1]) if len(sys.argv) > 1 else None
+
+def submit(port, args):
+    """Send a job to the resident explorer and wait for its reply."""
+    with socket.create_connection(('127.0.0.1', port)) as server:
+        jobs = server.makefile('rw')
+        jobs.write(args + '\n')
+        jobs.flush()
+        return jobs.readline().strip()
+
+
 def chunks(l, n):
     """Yield successive n-sized chunks from l."""
     for i in range(0, len(l), n):
@@ -28,14 +41,21 @@ if __name__ == '__main__':
 
     for idx, b in enumerate(batches):
 
-        cmd = ['java', '-jar', JAR_FILE]
+        args = []
 
         formatted_dirs = [str(DIRECTORY + i) for i in b]
 
-        cmd.extend(formatted_dirs)
-        cmd.extend(['-out', 'batch-%d' % idx])
-        cmd.extend(['-filter', '".*List<.*>|.*List|.*Set<.*>|.*Set|.*Map<.*>|.*Map"'])
-        cmd = " ".join(cmd)
+        args.extend(formatted_dirs)
+        args.extend(['-out', 'batch-%d' % idx])
+        args.extend(['-filter', '".*List<.*>|.*List|.*Set<.*>|.*Set|.*Map<.*>|.*Map"'])
+        args = " ".join(args)
+
+        if SERVER_PORT:
+            print('Submitting the job= %s' % args)
+            print(submit(SERVER_PORT, args))
+            continue
+
+        cmd = " ".join(['java', '-jar', JAR_FILE, args])
         print('Executing the command= %s' % cmd)
         #ret = subprocess.call(cmd, shell=True)
 
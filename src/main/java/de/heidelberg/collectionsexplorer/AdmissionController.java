@@ -0,0 +1,140 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import org.pmw.tinylog.Logger;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * AdmissionController sits in front of the parse stage and limits the memory
+ * held by the files being parsed at the same time. Each file is accounted for
+ * an estimate of its AST size; a file is only admitted while the heap used
+ * after the last garbage collection plus the estimates in flight stay under a
+ * fraction of the maximum heap. A file is always admitted when nothing else is
+ * in flight, so large files are serialized instead of rejected.
+ * 
+ * @author diego.costa
+ *
+ */
+public class AdmissionController {
+
+	// Rough size of the AST (with its tokens and ranges) per byte of source
+	static final int AST_BYTES_PER_SOURCE_BYTE = 25;
+	private static final long RECHECK_MILLIS = 100;
+	private static final int MB = 1024 * 1024;
+
+	// Pools of the heap, the others (metaspace, code cache) are not bounded by the max heap
+	private static final Set<String> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP).map(MemoryPoolMXBean::getName)
+			.collect(Collectors.toSet());
+
+	// Live heap measured by the last garbage collection
+	private static final AtomicLong usedAfterGc = new AtomicLong(
+			ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+
+	static {
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc instanceof NotificationEmitter) {
+				((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+					if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+							.equals(notification.getType())) {
+						GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+								.from((CompositeData) notification.getUserData());
+						usedAfterGc.set(heapUsed(info.getGcInfo().getMemoryUsageAfterGc()));
+					}
+				}, null, null);
+			}
+		}
+	}
+
+	/**
+	 * @return the memory used by the heap pools among the usage of all pools
+	 */
+	static long heapUsed(Map<String, MemoryUsage> usageByPool) {
+		return usageByPool.entrySet().stream().filter(pool -> HEAP_POOLS.contains(pool.getKey()))
+				.mapToLong(pool -> pool.getValue().getUsed()).sum();
+	}
+
+	private final long limit;
+	private long inFlight = 0;
+	private boolean throttling = false;
+	private final AtomicInteger throttledFiles = new AtomicInteger();
+
+	/**
+	 * @param maxHeapUse
+	 *            fraction of the maximum heap that can be used by the live data
+	 *            and the files in flight
+	 */
+	public AdmissionController(double maxHeapUse) {
+		long maxHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+		if (maxHeap < 0) {
+			maxHeap = Runtime.getRuntime().maxMemory();
+		}
+		this.limit = (long) (maxHeap * maxHeapUse);
+	}
+
+	/**
+	 * Wait until the file can be parsed.
+	 * 
+	 * @return the estimate to be given back to {@link #release(long)}
+	 */
+	public synchronized long acquire(String path, long sourceBytes) throws InterruptedException {
+
+		long estimate = sourceBytes * AST_BYTES_PER_SOURCE_BYTE;
+
+		if (throttling && inFlight > 0 && admits(estimate)) {
+			// Admitted next to another file: parsing is concurrent again
+			throttling = false;
+			Logger.info("Heap pressure relieved, parsing at full parallelism");
+		}
+
+		if (!admits(estimate)) {
+			throttledFiles.incrementAndGet();
+			if (!throttling) {
+				throttling = true;
+				Logger.info(String.format(
+						"Heap under pressure (%d MB live, %d MB in flight, limit %d MB), throttling the parsing",
+						usedAfterGc.get() / MB, inFlight / MB, limit / MB));
+			}
+			Logger.debug(String.format("Delaying %s (%d KB) until memory is available", path, sourceBytes / 1024));
+
+			while (!admits(estimate)) {
+				// GC notifications do not wake us up, so check again periodically
+				wait(RECHECK_MILLIS);
+			}
+		}
+
+		inFlight += estimate;
+		return estimate;
+	}
+
+	public synchronized void release(long estimate) {
+		inFlight -= estimate;
+		notifyAll();
+	}
+
+	private boolean admits(long estimate) {
+		return inFlight == 0 || usedAfterGc.get() + inFlight + estimate <= limit;
+	}
+
+	/**
+	 * @return the number of files whose parsing was delayed
+	 */
+	public int getThrottledFiles() {
+		return throttledFiles.get();
+	}
+
+}
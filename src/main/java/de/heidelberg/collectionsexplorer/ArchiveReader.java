@@ -0,0 +1,144 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * ArchiveReader streams the java files stored in zip, jar and tar archives
+ * (optionally compressed with gzip or bzip2) without extracting them to disk.
+ * 
+ * @author diego.costa
+ *
+ */
+public class ArchiveReader {
+
+	/**
+	 * Separator between the archive and the entry in the reported path, as in
+	 * <code>/dataset/guava.tar.gz!/guava/src/A.java</code>
+	 */
+	public static final String ENTRY_SEPARATOR = "!/";
+
+	private static final String[] ZIP_EXTENSIONS = { ".zip", ".jar" };
+	private static final String[] TAR_EXTENSIONS = { ".tar", ".tar.gz", ".tgz", ".tar.bz2", ".tbz2" };
+
+	/**
+	 * Callback receiving the content of every matching entry of an archive.
+	 */
+	public interface EntryHandler {
+		void accept(String entryName, byte[] content) throws IOException;
+	}
+
+	public static boolean isArchive(File file) {
+		return isZip(file) || isTar(file);
+	}
+
+	/**
+	 * Read all the entries of the archive with the given extension, in the order
+	 * they are stored.
+	 */
+	public static void readEntries(File archive, String extension, EntryHandler handler) throws IOException {
+		if (isZip(archive)) {
+			readZip(archive, extension, handler);
+		} else if (isTar(archive)) {
+			Tar.readEntries(archive, extension, handler);
+		} else {
+			throw new IOException(String.format("Unsupported archive format %s", archive.getName()));
+		}
+	}
+
+	/**
+	 * @return the path reported for an entry of the archive
+	 */
+	public static String entryPath(File archive, String entryName) {
+		return archive.getAbsolutePath() + ENTRY_SEPARATOR + entryName;
+	}
+
+	/**
+	 * @return the name of the archive without its extension, used as project id
+	 */
+	public static String projectId(File archive) {
+		String name = archive.getName();
+		for (String[] extensions : new String[][] { TAR_EXTENSIONS, ZIP_EXTENSIONS }) {
+			for (String extension : extensions) {
+				if (name.endsWith(extension)) {
+					return name.substring(0, name.length() - extension.length());
+				}
+			}
+		}
+		return name;
+	}
+
+	private static void readZip(File archive, String extension, EntryHandler handler) throws IOException {
+		try (ZipFile zip = new ZipFile(archive)) {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (!entry.isDirectory() && entry.getName().endsWith(extension)) {
+					try (InputStream in = zip.getInputStream(entry)) {
+						handler.accept(entry.getName(), in.readAllBytes());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Kept in its own class, so commons-compress is only loaded when a tar
+	 * archive is read.
+	 */
+	private static class Tar {
+
+		private static void readEntries(File archive, String extension, EntryHandler handler) throws IOException {
+			try (TarArchiveInputStream tar = new TarArchiveInputStream(open(archive))) {
+				TarArchiveEntry entry;
+				while ((entry = tar.getNextTarEntry()) != null) {
+					if (entry.isFile() && entry.getName().endsWith(extension)) {
+						// The stream ends with the current entry
+						handler.accept(entry.getName(), tar.readAllBytes());
+					}
+				}
+			}
+		}
+
+		private static InputStream open(File archive) throws IOException {
+			InputStream in = new BufferedInputStream(new FileInputStream(archive));
+			String name = archive.getName();
+			if (name.endsWith(".gz") || name.endsWith(".tgz")) {
+				return new GzipCompressorInputStream(in, true);
+			}
+			if (name.endsWith(".bz2") || name.endsWith(".tbz2")) {
+				return new BZip2CompressorInputStream(in, true);
+			}
+			return in;
+		}
+	}
+
+	private static boolean isZip(File file) {
+		return endsWithAny(file.getName(), ZIP_EXTENSIONS);
+	}
+
+	private static boolean isTar(File file) {
+		return endsWithAny(file.getName(), TAR_EXTENSIONS);
+	}
+
+	private static boolean endsWithAny(String name, String[] extensions) {
+		for (String extension : extensions) {
+			if (name.endsWith(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,133 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.pmw.tinylog.Logger;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Subcommand that generates an application class data sharing (AppCDS)
+ * archive of the explorer from a training run. Most of the wall time of a run
+ * on a small input is spent loading the classes of picocli, JavaParser and
+ * opencsv; started with the archive, the JVM maps them already parsed and
+ * verified instead.
+ * 
+ * The archive is only valid for the jar and the JVM it was created with. The
+ * startup of the training run is measured with and without the archive.
+ * 
+ * @author diego.costa
+ *
+ */
+@Command(name = "cds", description = "Generates a class data sharing archive from a training run, to start the explorer faster (java -XX:SharedArchiveFile=<archive> -jar ...).", mixinStandardHelpOptions = true)
+public class CdsCommand implements Callable<Void> {
+
+	@Option(arity = "1", required = true, names = {
+			"-train" }, paramLabel = "args", description = "Arguments of the training run, in quotes (e.g. \"dataset/0_1_small -new -var -out train-\")")
+	private String training;
+
+	@Option(arity = "1", names = {
+			"-archive" }, paramLabel = "file", description = "Archive to be written (default: collections-explorer.jsa)")
+	private File archive = new File("collections-explorer.jsa");
+
+	@Option(arity = "1", names = {
+			"-runs" }, paramLabel = "runs", description = "Runs measured with and without the archive, 0 to skip (default: 3)")
+	private int runs = 3;
+
+	@Override
+	public Void call() throws Exception {
+
+		File jar = jarFile();
+		String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+		String[] trainingArgs = ServeCommand.split(training);
+
+		File classList = File.createTempFile("collections-explorer", ".classlist");
+		try {
+			Logger.info(String.format("Recording the classes loaded by the training run: %s", training));
+			List<String> record = command(java, "-Xshare:off", "-XX:DumpLoadedClassList=" + classList.getPath(),
+					"-jar", jar.getPath());
+			record.addAll(Arrays.asList(trainingArgs));
+			run(record);
+
+			Logger.info(String.format("Dumping the archive %s", archive));
+			run(command(java, "-Xshare:dump", "-XX:SharedClassListFile=" + classList.getPath(),
+					"-XX:SharedArchiveFile=" + archive.getPath(), "-cp", jar.getPath()));
+		} finally {
+			classList.delete();
+		}
+
+		if (runs > 0) {
+			long before = measure(java, jar, trainingArgs, null);
+			long after = measure(java, jar, trainingArgs, archive);
+			Logger.info(String.format("Training run: %d ms without the archive, %d ms with it (best of %d runs)",
+					before, after, runs));
+		}
+
+		Logger.info(String.format("Start the explorer with: %s -XX:SharedArchiveFile=%s -jar %s ...", java,
+				archive.getPath(), jar.getPath()));
+		return null;
+	}
+
+	/**
+	 * @return the best wall time of the training run, in milliseconds
+	 */
+	private long measure(String java, File jar, String[] trainingArgs, File sharedArchive)
+			throws IOException, InterruptedException {
+		List<String> command = sharedArchive == null ? command(java)
+				: command(java, "-XX:SharedArchiveFile=" + sharedArchive.getPath());
+		command.add("-jar");
+		command.add(jar.getPath());
+		command.addAll(Arrays.asList(trainingArgs));
+
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+			run(command);
+			best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+		}
+		return best;
+	}
+
+	private static List<String> command(String java, String... options) {
+		List<String> command = new ArrayList<>();
+		command.add(java);
+		// AppCDS is not enabled by default on Java 10
+		if (Runtime.version().feature() == 10) {
+			command.add("-XX:+UseAppCDS");
+		}
+		command.addAll(Arrays.asList(options));
+		return command;
+	}
+
+	private static void run(List<String> command) throws IOException, InterruptedException {
+		Logger.debug(String.format("Running %s", String.join(" ", command)));
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		int exit = process.waitFor();
+		if (exit != 0) {
+			throw new IOException(String.format("%s exited with %d", String.join(" ", command), exit));
+		}
+	}
+
+	private static File jarFile() throws IOException {
+		try {
+			File jar = new File(
+					CdsCommand.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			if (!jar.isFile()) {
+				throw new IOException(String.format(
+						"The explorer is not running from a jar (%s), build it with mvn package first", jar));
+			}
+			return jar;
+		} catch (URISyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+
+}
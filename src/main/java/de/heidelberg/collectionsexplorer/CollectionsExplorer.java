@@ -1,27 +1,45 @@
 package de.heidelberg.collectionsexplorer;
 
-import com.github.javaparser.JavaParser;
-import com.github.javaparser.ParserConfiguration;
-import com.github.javaparser.StaticJavaParser;
-import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import de.heidelberg.collectionsexplorer.beans.DistinctCountInfo;
+import de.heidelberg.collectionsexplorer.beans.EstimateInfo;
 import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.HeavyHitterInfo;
+import de.heidelberg.collectionsexplorer.beans.OutputFileInfo;
 import de.heidelberg.collectionsexplorer.context.Report;
+import de.heidelberg.collectionsexplorer.context.Result;
 import de.heidelberg.collectionsexplorer.context.VisitorReportContext;
 import de.heidelberg.collectionsexplorer.context.VisitorType;
+import de.heidelberg.collectionsexplorer.sketch.HyperLogLog;
+import de.heidelberg.collectionsexplorer.sketch.TopK;
+import de.heidelberg.collectionsexplorer.sketch.TypeSketches;
+import de.heidelberg.collectionsexplorer.writer.Compression;
 import de.heidelberg.collectionsexplorer.writer.CsvWriter;
+import de.heidelberg.collectionsexplorer.writer.DatabaseWriter;
+import de.heidelberg.collectionsexplorer.writer.Manifest;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import org.pmw.tinylog.Logger;
 import picocli.CommandLine;
@@ -36,16 +54,37 @@ import picocli.CommandLine.Parameters;
  * @author diego
  *
  */
-@Command(description = "Finds and parses Java code inside a directory and retrieve information about the collections usage.", name = "Collections-Explorer", mixinStandardHelpOptions = true, version = "1.0")
+@Command(description = "Finds and parses Java code inside a directory and retrieve information about the collections usage.", name = "Collections-Explorer", mixinStandardHelpOptions = true, version = "1.0", subcommands = {
+		PackCommand.class, ServeCommand.class, CdsCommand.class })
 public class CollectionsExplorer implements Callable<Void> {
 
 	private static final String JAVA_EXTENSION = ".java";
+	private static final String HISTORY_ADDED_PREFIX = "history-added-";
+	private static final String HISTORY_REMOVED_PREFIX = "history-removed-";
+	private static final String HISTORY_EVOLUTION_FILE = "history-evolution.csv";
+	private static final String SAMPLE_ESTIMATES_FILE = "sample-estimates.csv";
+	private static final String PATH_COLUMN = "path";
+	private static final String SKETCH_TOP_FILE = "sketch-top-types.csv";
+	private static final String SKETCH_DISTINCT_FILE = "sketch-distinct-types.csv";
+
+	private Compression compression = Compression.NONE;
+
+	// Every file written by the run, listed at the end of the export
+	private final Manifest manifest = new Manifest();
+
+	// Set when running as a job of a server
+	private ExecutorService sharedWorkers;
+	private TypeSolverCache solverCache;
+	private AdmissionController admission;
+	// Why the run stopped, reported to the server as the outcome of the job
+	private String failure;
 
 	/**
 	 * INPUT PARAMETERS
 	 */
 
-	@Parameters(index = "0", arity = "1..*", paramLabel = "dir", description = "Input directory where the explorer will retrieve collections usage")
+	// Not required by picocli, so the subcommands can be called without it
+	@Parameters(index = "0", arity = "0..*", paramLabel = "dir", description = "Input directory (or zip, jar, tar archive, or corpus pack) where the explorer will retrieve collections usage")
 	private File[] inputDirectories;
 
 	/**
@@ -58,14 +97,102 @@ public class CollectionsExplorer implements Callable<Void> {
 			"-fileslisted" }, description = "Tells Collection Explorer to parse the first parameter as a text file containing all java files (one per line)")
 	private boolean filesListed = false;
 
+	@Option(arity = "0", names = {
+			"-archives" }, description = "Also read the java files of the archives (zip, jar, tar) found in the input directories")
+	private boolean readArchives = false;
+
+	@Option(arity = "1", names = {
+			"-rev" }, paramLabel = "rev", description = "Read the input directories as git repositories at the given revision (branch, tag or commit), without checking it out")
+	private String revision;
+
+	@Option(arity = "1", names = {
+			"-history" }, paramLabel = "range", description = "Mine the history of the input git repositories over a commit range (from..to, or a single revision for its whole history), reparsing only the changed files of each commit")
+	private String historyRange;
+
+	@Option(arity = "1", names = {
+			"-sample" }, paramLabel = "fraction", description = "Only parse a random sample of this fraction (0-1] of the files of each project and estimate the corpus counts with 95%% confidence intervals")
+	private Double sampleFraction;
+
+	@Option(arity = "1", names = {
+			"-seed" }, paramLabel = "seed", description = "Seed of the random sample (default: 42)")
+	private long seed = 42;
+
+	@Option(arity = "0", names = {
+			"-sketch" }, description = "Summarize the most frequent and the distinct types (object types, type arguments, declared types, stream chains) with bounded-memory sketches")
+	private boolean sketch = false;
+
+	@Option(arity = "1", names = {
+			"-topk" }, paramLabel = "k", description = "Number of most frequent values reported per sketched dimension (default: 50)")
+	private int topK = 50;
+
+	@Option(arity = "1", names = {
+			"-sketchout" }, paramLabel = "file", description = "Save the sketches of this run, to be merged with the sketches of other shards")
+	private File sketchOutput;
+
+	@Option(arity = "1..*", names = {
+			"-mergesketches" }, paramLabel = "file", description = "Sketches saved by other shards (-sketchout) to be merged into the sketches of this run")
+	private File[] mergeSketches;
+
+	@Option(arity = "1..*", names = {
+			"-columns" }, paramLabel = "analysis=columns", description = "Only compute and write the given comma separated columns of an analysis (var, new, import or stream), e.g. -columns new=objectType,path,lineNumber")
+	private Map<String, String> columns;
+
+	@Option(arity = "1", names = {
+			"-db" }, paramLabel = "file", description = "Load the reports into an embedded H2 database (one indexed table per analysis) instead of CSV files")
+	private File database;
+
+	@Option(arity = "1", names = {
+			"-compress" }, paramLabel = "codec", description = "Compress the reports: none, gzip (.gz) or lz4 (.lz4, faster); blocks are compressed in parallel (default: none)")
+	private String compress = "none";
+
 	@Option(arity = "0..*", names = {
 			"-filter" }, description = "Use this to filter the specific types to be inspected")
 	private String[] filters;
 
 	@Option(arity = "1", names = {
-			"-out" }, paramLabel = "out", description = "Directory where the report will be saved")
+			"-out" }, paramLabel = "out", description = "Directory where the reports are written, or the prefix of their names when it is not a directory (e.g. guava-)")
 	private File outputDirectory;
 
+	@Option(arity = "0", names = {
+			"-perproject" }, description = "Also write the report of each project into its own folder (<out>/<project>/, or <out><project>/ when -out is a prefix)")
+	private boolean perProjectOutput = false;
+
+	@Option(arity = "0", names = {
+			"-watch" }, description = "Keep watching the input directories once exported: parse the changed files again, retract the deleted ones and update the reports")
+	private boolean watch = false;
+
+	@Option(arity = "1", names = {
+			"-settle" }, paramLabel = "millis", description = "With -watch, time without changes before the CSV reports are written again; the rows of a database are updated right away (default: 1000)")
+	private long settleMillis = 1000;
+
+	@Option(arity = "1", names = {
+			"-partrows" }, paramLabel = "rows", description = "Split the reports with more entries into part files written in parallel, 0 to never split (default: 1000000)")
+	private int partRows = 1000000;
+
+	@Option(arity = "0", names = {
+			"-sorted" }, description = "Sort the reports by (path, line) for deterministic outputs, spilling to temporary files when needed")
+	private boolean sortedOutput = false;
+
+	@Option(arity = "1", names = {
+			"-spillrows" }, paramLabel = "rows", description = "Entries of a sorted report kept in memory before a sorted run is spilled to disk (default: 500000)")
+	private int spillRows = 500000;
+
+	@Option(arity = "0", names = {
+			"-columnar" }, description = "Keep the reports in compact primitive columns instead of one object per entry")
+	private boolean columnarOutput = false;
+
+	@Option(arity = "0", names = {
+			"-nodedup" }, description = "Parse every file, even when its content was already parsed for another path")
+	private boolean noDeduplication = false;
+
+	@Option(arity = "1", names = {
+			"-threads" }, paramLabel = "threads", description = "Number of parallel workers: each parses one file at a time, or one whole project with -solve, and writes one report file at a time (default: number of cores)")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Option(arity = "1", names = {
+			"-maxheap" }, paramLabel = "percent", description = "Percentage of the maximum heap the live data and the files being parsed may use before parsing is throttled (default: 70)")
+	private int maxHeapPercent = 70;
+
 	/**
 	 * VISITORS PARAMETERS
 	 */
@@ -89,6 +216,10 @@ public class CollectionsExplorer implements Callable<Void> {
 	 * TYPE SOLVER PARAMETERS
 	 */
 	@Option(arity = "0", names = {
+			"-solve" }, description = "Resolve symbol types with a type solver per project (VERY SLOW).")
+	private boolean solveSymbols = false;
+
+	@Option(arity = "1", names = {
 			"-jar" }, paramLabel = "jar", description = "Jar file to help resolve symbol types (stream usage).")
 	private File jarFile;
 
@@ -102,8 +233,23 @@ public class CollectionsExplorer implements Callable<Void> {
 	@Override
 	public Void call() throws Exception {
 
+		if (inputDirectories == null) {
+			failure = "Missing required parameter: dir";
+			System.err.println(failure);
+			CommandLine.usage(this, System.err);
+			return null;
+		}
+
 		Logger.info("Starting the Collections-Explorer");
 
+		try {
+			compression = Compression.of(compress);
+		} catch (IllegalArgumentException e) {
+			failure = e.getMessage();
+			Logger.error(failure);
+			return null;
+		}
+
 		Filter filter = new Filter();
 
 		if (filters == null) {
@@ -122,7 +268,10 @@ public class CollectionsExplorer implements Callable<Void> {
 			// create a complete report and parse all the files
 			Logger.info("Finding the amount of java files in the directory");
 
-			List<File> filesList = new ArrayList<>();
+			List<Project> projects = new ArrayList<>();
+			List<File> archives = new ArrayList<>();
+			List<File> repositories = new ArrayList<>();
+			List<File> packs = new ArrayList<>();
 			for (File dir : inputDirectories) {
 
 				if (filesListed) {
@@ -134,100 +283,681 @@ public class CollectionsExplorer implements Callable<Void> {
 							textFile));
 					List<String> result = Files.readAllLines(Paths.get(textFile.getAbsolutePath()));
 					// String path -> File
-					filesList.addAll(result.stream().map(File::new).collect(Collectors.toList()));
+					List<File> filesList = result.stream().map(File::new).collect(Collectors.toList());
+					archives.addAll(filesList.stream().filter(ArchiveReader::isArchive).collect(Collectors.toList()));
+					filesList.removeIf(ArchiveReader::isArchive);
+					projects.addAll(ProjectResolver.resolve(filesList, null));
+
+				} else if (revision != null || historyRange != null) {
+					List<File> found = GitReader.findRepositories(dir);
+					Logger.info(String.format("Adding %d git repositories from %s", found.size(), dir.getPath()));
+					repositories.addAll(found);
+
+				} else if (CorpusPack.isPack(dir)) {
+					Logger.info(String.format("Adding corpus pack %s", dir.getPath()));
+					packs.add(dir);
+
+				} else if (ArchiveReader.isArchive(dir)) {
+					Logger.info(String.format("Adding archive %s", dir.getPath()));
+					archives.add(dir);
 
 				} else {
 					Logger.info(String.format("Adding directory %s", dir.getPath()));
-					filesList.addAll(FileTraverser.visitAllDirsAndFiles(dir, JAVA_EXTENSION));
+					List<File> filesList = FileTraverser.visitAllDirsAndFiles(dir, JAVA_EXTENSION);
+					projects.addAll(ProjectResolver.resolve(filesList, dir));
 
-					// FIXME: Integrate this with the file list as well
-					CombinedTypeSolver solver = new CombinedTypeSolver(new JavaParserTypeSolver(dir), // Needs an accurate
-																									// root directory
-																									// THIS IS VERY SLOW
-						new ReflectionTypeSolver()); // Works for types we also use here (java.util, java.lang...)
+					if (readArchives) {
+						archives.addAll(FileTraverser.visitAllArchives(dir));
+					}
+				}
 
+				Logger.info(String.format("%d projects and %d archives found...", projects.size(), archives.size()));
+			}
 
-					if (jarFile != null) {
-						solver.add(new JarTypeSolver(jarFile));
-						Logger.info(String.format("Jar file %s specified for the type solver.", jarFile));
-					}
-	
-					// FIXME: Find a way to incorporate the solver in the latest version of Java parser
-					// Configure JavaParser to use type resolution
-					// JavaSymbolSolver symbolSolver = new JavaSymbolSolver(solver);
-					// ParserConfiguration config = StaticJavaParser.getConfiguration();
-					// config.setSymbolResolver(symbolSolver);
+			if (jarFile != null) {
+				Logger.info(String.format("Jar file %s specified for the type solver.", jarFile));
+			}
 
-				}			
+			StratifiedSample sample = null;
+			if (sampleFraction != null) {
+				sample = StratifiedSample.draw(projects, sampleFraction, seed);
+				Logger.info(String.format("Sampled %d of %d files of %d projects with seed %d", sample.getSampleSize(),
+						sample.getPopulationSize(), sample.getProjects().size(), seed));
+				projects = sample.getProjects();
+				if (!archives.isEmpty() || !packs.isEmpty() || !repositories.isEmpty()) {
+					Logger.warn("Only the files of the input directories are sampled");
+				}
+			}
 
-				Logger.info(String.format("%d files found...", filesList.size()));
-				processor.process(filesList);
+			if (!projects.isEmpty()) {
+				processor.processProjects(projects);
+			}
 
+			if (!archives.isEmpty()) {
+				processor.processArchives(archives);
+			}
+
+			for (File pack : packs) {
+				processor.processPack(pack);
+			}
+
+			if (historyRange != null) {
+				exportHistory(processor, repositories);
+				writeManifest();
+				return null;
+			}
+
+			if (!repositories.isEmpty()) {
+				processor.processRevisions(repositories, revision);
 			}
 
 			Logger.info("All files processed, preparing the export");
 
 			EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts = processor.getAllVisitorContexts();
 
-			// Export the context of each visitor into CSV
-			for (Entry<VisitorType, VisitorReportContext<?>> entry : allVisitorContexts.entrySet()) {
-
-				VisitorType visitorType = entry.getKey();
-				VisitorReportContext<?> context = entry.getValue();
+			exportAllReports(allVisitorContexts);
 
-				int size = context.getReport().getResults().size();
-				Logger.info(String.format("Writing the context found with %s analysis - %d entries", visitorType, size));
+			if (sample != null) {
+				exportEstimates(sample, allVisitorContexts);
+			}
 
-				// Handle output dir option
-				File outputFile;
-				if (outputDirectory == null) {
-					outputFile = new File(visitorType.outputFile);
-				} else {
-					outputFile = new File(outputDirectory + visitorType.outputFile);
-				}
+			if (sketch) {
+				exportSketches(processor.getSketches());
+			}
 
-				Logger.info(String.format("Writing the report at %s", outputFile));
+			writeManifest();
 
-				// Writ in a CSV file
-				CsvWriter.writeInfo(outputFile, formatToWrite(context.getReport()));
+			Logger.info(String.format(
+					"All files processed and exported successfully (%.1f%% duplicated files, %.2fs processing with a tail of %.2fs, %d files throttled)",
+					100.0 * processor.getDuplicateRatio(), processor.getElapsedSeconds(), processor.getTailSeconds(),
+					processor.getThrottledFiles()));
 
+			if (watch) {
+				watch(processor, allVisitorContexts);
 			}
 
-			Logger.info("All files processed and exported successfully");
-
 		} catch (IOException e) {
-			Logger.error(
-					String.format("Error while parsing the input. Message: %s. %s", e.getMessage(), e.getStackTrace()));
+			failure = String.format("Error while parsing the input. Message: %s", e.getMessage());
+			Logger.error(String.format("%s. %s", failure, e.getStackTrace()));
 		}
 		return null;
 	}
 
+	/**
+	 * @return why the last run stopped, or null when it succeeded
+	 */
+	String getFailure() {
+		return failure;
+	}
+
+	boolean isWatch() {
+		return watch;
+	}
+
+	/**
+	 * Run on the workers, type solvers and memory budget shared by the jobs of
+	 * a server.
+	 */
+	void share(ExecutorService sharedWorkers, TypeSolverCache solverCache, AdmissionController admission) {
+		this.sharedWorkers = sharedWorkers;
+		this.solverCache = solverCache;
+		this.admission = admission;
+	}
+
 	private FileProcessor createAndConfigureProcessor(Filter filter) throws IOException {
 		FileProcessor processor = new FileProcessor(filter);
+		processor.setThreads(threads);
+		processor.setSolveSymbols(solveSymbols);
+		processor.setJarFile(jarFile);
+		processor.setDeduplicate(!noDeduplication);
+		if (admission == null) {
+			processor.setMaxHeapUse(maxHeapPercent / 100.0);
+		} else {
+			// The -maxheap of the server applies to all its jobs together
+			processor.setAdmissionController(admission);
+		}
+		processor.setSharedWorkers(sharedWorkers);
+		processor.setSolverCache(solverCache);
+		if (sketch) {
+			processor.setSketches(topK);
+		}
+		if (sortedOutput) {
+			processor.setSortedOutput(spillRows);
+			if (columnarOutput) {
+				Logger.warn("Sorted reports are spilled to disk, -columnar is ignored");
+			}
+		} else if (columnarOutput) {
+			processor.setColumnarOutput();
+		}
+
+		if (columns != null) {
+			for (String analysis : columns.keySet()) {
+				if (!Arrays.asList("var", "new", "import", "stream").contains(analysis)) {
+					Logger.warn(String.format("Unknown analysis %s in -columns, use var, new, import or stream", analysis));
+				}
+			}
+		}
 
 		if (inspectImportDeclaration) {
-			Logger.info(String.format("Inspecting IMPORT-DECLARATIONS"));
-			processor.addVisitorContext(VisitorType.IMPORT_DECLARATION);
+			Logger.info(String.format("Inspecting IMPORT-DECLARATIONS (%s)", columnsOf("import")));
+			processor.addVisitorContext(VisitorType.IMPORT_DECLARATION, columnsOf("import"));
 		}
 
 		if (inspectVarDeclaration) {
-			Logger.info(String.format("Inspecting VARIABLE-DECLARATIONS"));
-			processor.addVisitorContext(VisitorType.VARIABLE_DECLARATION);
+			Logger.info(String.format("Inspecting VARIABLE-DECLARATIONS (%s)", columnsOf("var")));
+			processor.addVisitorContext(VisitorType.VARIABLE_DECLARATION, columnsOf("var"));
 		}
 
 		if (inspectObjCreation) {
-			Logger.info(String.format("Inspecting OBJECT-CREATIONS"));
-			processor.addVisitorContext(VisitorType.OBJECT_CREATION);
+			Logger.info(String.format("Inspecting OBJECT-CREATIONS (%s)", columnsOf("new")));
+			processor.addVisitorContext(VisitorType.OBJECT_CREATION, columnsOf("new"));
 		}
 
 		if (inspectStreamMethodDeclaration) {
-			Logger.info(String.format("Inspecting STREAM-API-USAGE"));
-			processor.addVisitorContext(VisitorType.STREAM_API_USAGE);
+			Logger.info(String.format("Inspecting STREAM-API-USAGE (%s)", columnsOf("stream")));
+			processor.addVisitorContext(VisitorType.STREAM_API_USAGE, columnsOf("stream"));
 		}
 
 		return processor;
 	}
 
+	/**
+	 * Write the reports, into the database or CSV files, and the report of each
+	 * project if requested.
+	 */
+	private void exportAllReports(EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts)
+			throws Exception {
+
+		if (database != null) {
+			exportDatabase(allVisitorContexts);
+		} else {
+			exportReports(allVisitorContexts);
+		}
+
+		if (perProjectOutput && (sortedOutput || columnarOutput)) {
+			Logger.warn("Per project reports are not written for sorted or columnar reports");
+		} else if (perProjectOutput) {
+			exportPerProject(allVisitorContexts);
+		}
+	}
+
+	/**
+	 * Keep the reports up to date with the input directories until the
+	 * explorer is stopped. The estimates and sketches are not updated.
+	 */
+	private void watch(FileProcessor processor, EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts)
+			throws Exception {
+
+		if (sortedOutput || columnarOutput || filesListed || revision != null) {
+			Logger.warn("Only the directories of unsorted, non columnar reports can be watched");
+			return;
+		}
+
+		try (SourceWatcher watcher = new SourceWatcher(processor);
+				DatabaseWriter writer = database == null ? null : new DatabaseWriter(database)) {
+			for (File dir : inputDirectories) {
+				if (dir.isDirectory() && !CorpusPack.isPack(dir)) {
+					watcher.register(dir);
+				} else {
+					Logger.warn(String.format("Only directories are watched, %s is not", dir));
+				}
+			}
+
+			Logger.info("Watching the input directories for changes, stop with Ctrl+C");
+			watcher.watch(new SourceWatcher.ChangeHandler() {
+				@Override
+				public void changed(Set<String> paths) throws Exception {
+					if (writer != null) {
+						refreshDatabase(writer, allVisitorContexts, paths);
+					}
+				}
+
+				@Override
+				public void settled() throws Exception {
+					if (writer == null || perProjectOutput) {
+						refresh(allVisitorContexts);
+					}
+				}
+			}, settleMillis);
+		}
+	}
+
+	/**
+	 * Replace the rows of the changed files in each table of the database.
+	 */
+	private void refreshDatabase(DatabaseWriter writer,
+			EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts, Set<String> paths) throws Exception {
+
+		File databaseFile = databaseFile();
+		for (Entry<VisitorType, VisitorReportContext<?>> entry : allVisitorContexts.entrySet()) {
+
+			VisitorType visitorType = entry.getKey();
+			Columns projection = entry.getValue().getColumns();
+			Report report = entry.getValue().getReport();
+
+			long rows;
+			if (projection.isRequested(PATH_COLUMN)) {
+				List<GenericInfo> entries = new ArrayList<>();
+				for (Result<?> result : report.getResults()) {
+					if (paths.contains(result.getFilePath())) {
+						entries.addAll(result.getEntries());
+					}
+				}
+				rows = writer.replaceRows(visitorType.name(), visitorType.beanType, PATH_COLUMN, paths,
+						entries.iterator(), projection);
+			} else {
+				// Without the path the rows of a file are not known, the table is loaded again
+				rows = writer.writeInfo(visitorType.name(), visitorType.beanType, formatToWrite(report).iterator(),
+						projection, PATH_COLUMN, "project", visitorType.typeColumn);
+			}
+
+			manifest.remove(visitorType.name(), databaseFile::equals);
+			manifest.add(visitorType.name(), 0, databaseFile, rows);
+		}
+
+		writeManifest();
+	}
+
+	/**
+	 * Write the CSV reports again, removing the files of the previous export
+	 * that were not written this time (e.g. a part no longer needed).
+	 */
+	private void refresh(EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts) throws Exception {
+
+		// The tables of a database are kept up to date by each change
+		File databaseFile = databaseFile();
+		List<File> previous = new ArrayList<>();
+		for (VisitorType visitorType : allVisitorContexts.keySet()) {
+			previous.addAll(manifest.remove(visitorType.name(), file -> !file.equals(databaseFile)));
+		}
+
+		if (database == null) {
+			exportReports(allVisitorContexts);
+		}
+		if (perProjectOutput) {
+			exportPerProject(allVisitorContexts);
+		}
+
+		Set<String> written = manifest.getFiles().stream().map(OutputFileInfo::getFile).collect(Collectors.toSet());
+		for (File file : previous) {
+			if (!written.contains(file.getPath())) {
+				Files.deleteIfExists(file.toPath());
+			}
+		}
+
+		writeManifest();
+	}
+
+	/**
+	 * Write the report of each visitor into CSV, one task per visitor. Reports
+	 * with more than -partrows entries are split into part files: the parts of
+	 * a report held in memory are written in parallel, the parts of a store in
+	 * turn, as its entries are read in order.
+	 */
+	private void exportReports(EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts)
+			throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> writes = new ArrayList<>();
+
+		try {
+			for (Entry<VisitorType, VisitorReportContext<?>> entry : allVisitorContexts.entrySet()) {
+
+				VisitorType visitorType = entry.getKey();
+				Columns projection = entry.getValue().getColumns();
+				Report report = entry.getValue().getReport();
+
+				if (report.hasStore()) {
+					int parts = partsOf(report.getStore().size());
+					Logger.info(String.format("Writing the %d entries found with %s analysis in %d file(s)",
+							report.getStore().size(), visitorType, parts));
+
+					writes.add(executor.submit(() -> {
+						Iterator<GenericInfo> entries = report.getStoredEntries();
+						for (int part = 0; part < parts; part++) {
+							File outputFile = reportFile(visitorType, part, parts);
+							// The last part takes whatever is left
+							long rows = CsvWriter.writeInfo(outputFile,
+									part < parts - 1 ? limit(entries, partRows) : entries, projection);
+							manifest.add(visitorType.name(), part, outputFile, rows);
+						}
+						return null;
+					}));
+					continue;
+				}
+
+				List<GenericInfo> entries = formatToWrite(report);
+				int parts = partsOf(entries.size());
+				Logger.info(String.format("Writing the %d entries found with %s analysis in %d file(s)",
+						entries.size(), visitorType, parts));
+
+				for (int part = 0; part < parts; part++) {
+					int index = part;
+					File outputFile = reportFile(visitorType, part, parts);
+					List<GenericInfo> slice = parts == 1 ? entries
+							: entries.subList(part * partRows, Math.min(entries.size(), (part + 1) * partRows));
+
+					writes.add(executor.submit(() -> {
+						long rows = CsvWriter.writeInfo(outputFile, slice, projection);
+						manifest.add(visitorType.name(), index, outputFile, rows);
+						return null;
+					}));
+				}
+			}
+
+			// Propagate any error found while writing
+			for (Future<?> write : writes) {
+				write.get();
+			}
+			Logger.info(String.format("%d report files written", writes.size()));
+
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return the number of part files of a report with the given entries
+	 */
+	private int partsOf(long entries) {
+		if (partRows <= 0 || entries <= partRows) {
+			return 1;
+		}
+		return (int) ((entries + partRows - 1) / partRows);
+	}
+
+	/**
+	 * @return the file of a part of the report of a visitor, e.g.
+	 *         <code>obj-creation-part-00001.csv</code>, or the usual report file
+	 *         when it is not split
+	 */
+	private File reportFile(VisitorType visitorType, int part, int parts) {
+		if (parts == 1) {
+			return outputFile(visitorType.outputFile);
+		}
+		return outputFile(partFileName(visitorType.outputFile, part));
+	}
+
+	static String partFileName(String fileName, int part) {
+		int extension = fileName.lastIndexOf('.');
+		return String.format("%s-part-%05d%s", fileName.substring(0, extension), part,
+				fileName.substring(extension));
+	}
+
+	/**
+	 * @return an iterator over the next entries of another, at most the given
+	 *         number of them
+	 */
+	static <T> Iterator<T> limit(Iterator<T> entries, long max) {
+		return new Iterator<T>() {
+
+			private long taken = 0;
+
+			@Override
+			public boolean hasNext() {
+				return taken < max && entries.hasNext();
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				taken++;
+				return entries.next();
+			}
+		};
+	}
+
+	/**
+	 * Write the list of all the files written by the run. It is never
+	 * compressed, so it can be read before the reports.
+	 */
+	private void writeManifest() throws Exception {
+		File manifestFile = plainOutputFile(Manifest.MANIFEST_FILE);
+		manifest.write(manifestFile);
+		Logger.info(String.format("Listed the %d files written at %s", manifest.getFiles().size(), manifestFile));
+	}
+
+	/**
+	 * Load the report of each visitor into a table of the database, indexed by
+	 * path and type.
+	 */
+	private void exportDatabase(EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts)
+			throws Exception {
+
+		Map<String, Long> tables = new LinkedHashMap<>();
+		try (DatabaseWriter writer = new DatabaseWriter(database)) {
+			for (Entry<VisitorType, VisitorReportContext<?>> entry : allVisitorContexts.entrySet()) {
+
+				VisitorType visitorType = entry.getKey();
+				Report report = entry.getValue().getReport();
+
+				Iterator<GenericInfo> entries = report.hasStore() ? report.getStoredEntries()
+						: formatToWrite(report).iterator();
+				long rows = writer.writeInfo(visitorType.name(), visitorType.beanType, entries,
+						entry.getValue().getColumns(), PATH_COLUMN, "project", visitorType.typeColumn);
+				Logger.info(String.format("Loaded the %d entries found with %s analysis into the table %s of %s",
+						rows, visitorType, visitorType.name(), database));
+				tables.put(visitorType.name(), rows);
+			}
+		}
+
+		File databaseFile = databaseFile();
+		for (Entry<String, Long> table : tables.entrySet()) {
+			manifest.add(table.getKey(), 0, databaseFile, table.getValue());
+		}
+	}
+
+	/**
+	 * @return the file H2 keeps the database in, null without a database
+	 */
+	private File databaseFile() {
+		return database == null ? null : new File(database.getPath() + ".mv.db");
+	}
+
+	/**
+	 * @return the columns requested for an analysis, all of them if none was
+	 *         given
+	 */
+	private Columns columnsOf(String analysis) {
+		if (columns == null || !columns.containsKey(analysis)) {
+			return Columns.ALL;
+		}
+		return Columns.of(columns.get(analysis).split(","));
+	}
+
+	/**
+	 * Mine the history of the repositories and write the entries added and
+	 * removed by each commit, plus the evolution table of the changes per type.
+	 */
+	private void exportHistory(FileProcessor processor, List<File> repositories) throws Exception {
+
+		HistoryMiner miner = new HistoryMiner(processor);
+		miner.mine(repositories, historyRange);
+
+		for (VisitorType visitorType : processor.getAllVisitorContexts().keySet()) {
+
+			File addedFile = outputFile(HISTORY_ADDED_PREFIX + visitorType.outputFile);
+			Logger.info(String.format("Writing the %d entries added with %s analysis at %s",
+					miner.getAdded(visitorType).size(), visitorType, addedFile));
+			manifest.add(HISTORY_ADDED_PREFIX + visitorType.name(), 0, addedFile,
+					CsvWriter.writeInfo(addedFile, miner.getAdded(visitorType)));
+
+			File removedFile = outputFile(HISTORY_REMOVED_PREFIX + visitorType.outputFile);
+			Logger.info(String.format("Writing the %d entries removed with %s analysis at %s",
+					miner.getRemoved(visitorType).size(), visitorType, removedFile));
+			manifest.add(HISTORY_REMOVED_PREFIX + visitorType.name(), 0, removedFile,
+					CsvWriter.writeInfo(removedFile, miner.getRemoved(visitorType)));
+		}
+
+		File evolutionFile = outputFile(HISTORY_EVOLUTION_FILE);
+		Logger.info(String.format("Writing the evolution table at %s", evolutionFile));
+		manifest.add("history-evolution", 0, evolutionFile, CsvWriter.writeInfo(evolutionFile, miner.getEvolution()));
+
+		Logger.info("History mined and exported successfully");
+	}
+
+	/**
+	 * Write the corpus estimates computed from the sampled files.
+	 */
+	private void exportEstimates(StratifiedSample sample,
+			EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts) throws Exception {
+
+		List<EstimateInfo> estimates = new ArrayList<>();
+		for (Entry<VisitorType, VisitorReportContext<?>> entry : allVisitorContexts.entrySet()) {
+
+			if (entry.getValue().getReport().hasStore()) {
+				Logger.warn(String.format("No estimates for %s: the results of each file are not kept in a store",
+						entry.getKey()));
+				continue;
+			}
+
+			List<EstimateInfo> found = sample.estimate(entry.getKey(), entry.getValue().getReport());
+			EstimateInfo all = found.stream().filter(e -> e.getType().equals(StratifiedSample.ALL_TYPES))
+					.findFirst().get();
+			Logger.info(String.format("Estimated %.0f %s entries (95%% CI %.0f - %.0f) from %d of %d files",
+					all.getEstimatedCount(), entry.getKey(), all.getEstimatedCountLow(), all.getEstimatedCountHigh(),
+					all.getSampledFiles(), all.getTotalFiles()));
+			estimates.addAll(found);
+		}
+
+		File estimatesFile = outputFile(SAMPLE_ESTIMATES_FILE);
+		Logger.info(String.format("Writing the %d estimates at %s", estimates.size(), estimatesFile));
+		manifest.add("sample-estimates", 0, estimatesFile, CsvWriter.writeInfo(estimatesFile, estimates));
+	}
+
+	/**
+	 * Merge the sketches of the other shards and write the heavy hitters and the
+	 * distinct counts of each dimension.
+	 */
+	private void exportSketches(TypeSketches sketches) throws Exception {
+
+		if (mergeSketches != null) {
+			for (File shard : mergeSketches) {
+				Logger.info(String.format("Merging the sketches of %s", shard));
+				try (ObjectInputStream in = new ObjectInputStream(
+						new BufferedInputStream(new FileInputStream(shard)))) {
+					sketches.merge((TypeSketches) in.readObject());
+				}
+			}
+		}
+
+		if (sketchOutput != null) {
+			Logger.info(String.format("Saving the sketches at %s", sketchOutput));
+			try (ObjectOutputStream out = new ObjectOutputStream(
+					new BufferedOutputStream(new FileOutputStream(sketchOutput)))) {
+				out.writeObject(sketches);
+			}
+			// A serialized object rather than rows
+			manifest.add("sketches", 0, sketchOutput, 0);
+		}
+
+		List<HeavyHitterInfo> heavyHitters = new ArrayList<>();
+		for (Entry<String, TopK> dimension : sketches.getHeavyHitters().entrySet()) {
+			TopK top = dimension.getValue();
+			int rank = 1;
+			for (Entry<String, Long> value : top.getTop()) {
+				heavyHitters.add(HeavyHitterInfo.builder().dimension(dimension.getKey()).rank(rank++)
+						.value(value.getKey()).estimatedCount(value.getValue()).errorBound(top.getErrorBound())
+						.total(top.getTotal()).build());
+			}
+		}
+
+		List<DistinctCountInfo> distinctCounts = new ArrayList<>();
+		for (Entry<String, HyperLogLog> dimension : sketches.getDistinct().entrySet()) {
+			HyperLogLog distinct = dimension.getValue();
+			long total = sketches.getHeavyHitters().get(dimension.getKey()).getTotal();
+			Logger.info(String.format("%s: %d values, ~%d distinct", dimension.getKey(), total, distinct.estimate()));
+			distinctCounts.add(DistinctCountInfo.builder().dimension(dimension.getKey())
+					.estimatedDistinct(distinct.estimate()).relativeError(distinct.getRelativeError()).total(total)
+					.build());
+		}
+
+		File heavyHittersFile = outputFile(SKETCH_TOP_FILE);
+		Logger.info(String.format("Writing the most frequent values at %s", heavyHittersFile));
+		manifest.add("sketch-top-types", 0, heavyHittersFile, CsvWriter.writeInfo(heavyHittersFile, heavyHitters));
+
+		File distinctFile = outputFile(SKETCH_DISTINCT_FILE);
+		Logger.info(String.format("Writing the distinct counts at %s", distinctFile));
+		manifest.add("sketch-distinct-types", 0, distinctFile, CsvWriter.writeInfo(distinctFile, distinctCounts));
+	}
+
+	/**
+	 * Handle output dir option
+	 */
+	private File outputFile(String fileName) {
+		return plainOutputFile(fileName + compression.extension);
+	}
+
+	private File plainOutputFile(String fileName) {
+		if (outputDirectory == null) {
+			return new File(fileName);
+		}
+		if (outputDirectory.isDirectory()) {
+			return new File(outputDirectory, fileName);
+		}
+		return new File(outputDirectory + fileName);
+	}
+
+	/**
+	 * Write the report of each project in its own folder, named like the other
+	 * output files (in the -out directory, or after the -out prefix). Reports
+	 * are written concurrently, one task per project and visitor.
+	 */
+	private void exportPerProject(EnumMap<VisitorType, VisitorReportContext<?>> allVisitorContexts)
+			throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> writes = new ArrayList<>();
+
+		try {
+			for (Entry<VisitorType, VisitorReportContext<?>> entry : allVisitorContexts.entrySet()) {
+
+				VisitorType visitorType = entry.getKey();
+				Columns projection = entry.getValue().getColumns();
+				Map<String, List<GenericInfo>> byProject = formatToWriteByProject(entry.getValue().getReport());
+
+				for (Entry<String, List<GenericInfo>> project : byProject.entrySet()) {
+
+					File projectDirectory = plainOutputFile(project.getKey());
+					projectDirectory.mkdirs();
+					File outputFile = new File(projectDirectory, visitorType.outputFile + compression.extension);
+
+					writes.add(executor.submit(() -> {
+						Logger.debug(String.format("Writing the report of project %s at %s", project.getKey(),
+								outputFile));
+						long rows = CsvWriter.writeInfo(outputFile, project.getValue(), projection);
+						manifest.add(visitorType.name(), 0, outputFile, rows);
+						return null;
+					}));
+				}
+			}
+
+			// Propagate any error found while writing
+			for (Future<?> write : writes) {
+				write.get();
+			}
+			Logger.info(String.format("%d project reports written at %s", writes.size(),
+					plainOutputFile("<project>")));
+
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private Map<String, List<GenericInfo>> formatToWriteByProject(Report report) {
+
+		Map<String, List<GenericInfo>> byProject = new LinkedHashMap<>();
+
+		for (Result<?> result : report.getResults()) {
+			String project = result.getProject() == null ? Project.UNKNOWN_ID : result.getProject();
+			byProject.computeIfAbsent(project, p -> new ArrayList<>()).addAll(result.getEntries());
+		}
+
+		return byProject;
+	}
+
 	private List<GenericInfo> formatToWrite(Report report) {
 
 		List<GenericInfo> returnedList = new ArrayList<>();
@@ -0,0 +1,60 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The columns of a report that were requested. Visitors skip computing the
+ * fields that were not requested and the writer leaves their columns out.
+ * 
+ * @author diego.costa
+ *
+ */
+public class Columns {
+
+	public static final Columns ALL = new Columns(null);
+
+	// Upper case, as the headers written by opencsv; null means every column
+	private final Set<String> names;
+
+	private Columns(Set<String> names) {
+		this.names = names;
+	}
+
+	/**
+	 * @param names
+	 *            the bean fields requested, case insensitive (e.g.
+	 *            <code>objectType</code> or <code>OBJECTTYPE</code>)
+	 */
+	public static Columns of(String... names) {
+		Set<String> requested = new LinkedHashSet<>();
+		for (String name : names) {
+			if (!name.trim().isEmpty()) {
+				requested.add(name.trim().toUpperCase());
+			}
+		}
+		return new Columns(requested);
+	}
+
+	public boolean isAll() {
+		return names == null;
+	}
+
+	public boolean isRequested(String column) {
+		return names == null || names.contains(column.toUpperCase());
+	}
+
+	/**
+	 * @return the requested columns, in upper case, or <code>null</code> when
+	 *         every column is requested
+	 */
+	public Set<String> getNames() {
+		return names;
+	}
+
+	@Override
+	public String toString() {
+		return names == null ? "all columns" : String.join(",", names);
+	}
+
+}
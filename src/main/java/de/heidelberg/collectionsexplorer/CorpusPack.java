@@ -0,0 +1,240 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pmw.tinylog.Logger;
+
+import de.heidelberg.collectionsexplorer.util.ContentHash;
+
+/**
+ * CorpusPack stores a corpus of java files in a single segment file, so it can
+ * be read sequentially (and memory-mapped) instead of opening millions of tiny
+ * files.
+ * 
+ * The pack holds the concatenated contents followed by an index with the path,
+ * project, offset, length and content hash of every file, and a trailer
+ * pointing to the index. Identical contents are stored once. Contents never
+ * cross a {@link #SEGMENT_SIZE} boundary, so each segment can be mapped on its
+ * own.
+ * 
+ * @author diego.costa
+ *
+ */
+public class CorpusPack {
+
+	public static final String PACK_EXTENSION = ".pack";
+
+	private static final byte[] MAGIC = "CEPACK01".getBytes();
+	static final int SEGMENT_SIZE = 1 << 30;
+	// index offset (long), entries (int), magic
+	private static final int TRAILER_SIZE = 8 + 4 + 8;
+
+	private final List<Entry> entries;
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * A file stored in the pack.
+	 */
+	public static class Entry {
+
+		private final String path;
+		private final String project;
+		private final long offset;
+		private final int length;
+		private final String hash;
+
+		Entry(String path, String project, long offset, int length, String hash) {
+			this.path = path;
+			this.project = project;
+			this.offset = offset;
+			this.length = length;
+			this.hash = hash;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public String getProject() {
+			return project;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+	}
+
+	private CorpusPack(List<Entry> entries, MappedByteBuffer[] segments) {
+		this.entries = entries;
+		this.segments = segments;
+	}
+
+	public static boolean isPack(File file) {
+		return file.isFile() && file.getName().endsWith(PACK_EXTENSION);
+	}
+
+	/**
+	 * Write the files of the projects into a pack.
+	 * 
+	 * @return the number of files written
+	 */
+	public static int write(File pack, List<Project> projects) throws IOException {
+
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		Map<String, Long> offsetsByHash = new HashMap<>();
+		int count = 0;
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pack)));
+				DataOutputStream index = new DataOutputStream(indexBytes)) {
+
+			out.write(MAGIC);
+			long position = MAGIC.length;
+
+			for (Project project : projects) {
+				for (File file : project.getFiles()) {
+
+					byte[] content;
+					try {
+						content = Files.readAllBytes(file.toPath());
+					} catch (IOException e) {
+						Logger.error(String.format("Error while packing the file %s.", file.getName()));
+						continue;
+					}
+
+					String hash = ContentHash.of(content);
+					Long offset = offsetsByHash.get(hash);
+					if (offset == null) {
+						// Pad so the content does not cross a segment boundary
+						long available = SEGMENT_SIZE - position % SEGMENT_SIZE;
+						if (content.length > available) {
+							out.write(new byte[(int) available]);
+							position += available;
+						}
+						offset = position;
+						out.write(content);
+						position += content.length;
+						offsetsByHash.put(hash, offset);
+					}
+
+					index.writeUTF(file.getAbsolutePath());
+					index.writeUTF(project.getId() == null ? "" : project.getId());
+					index.writeLong(offset);
+					index.writeInt(content.length);
+					index.writeUTF(hash);
+					count++;
+				}
+			}
+
+			index.flush();
+			indexBytes.writeTo(out);
+			out.writeLong(position);
+			out.writeInt(count);
+			out.write(MAGIC);
+		}
+
+		Logger.info(String.format("%d files (%d unique contents) packed into %s", count, offsetsByHash.size(),
+				pack));
+		return count;
+	}
+
+	/**
+	 * Open a pack, reading its index and mapping its contents into memory.
+	 */
+	public static CorpusPack open(File pack) throws IOException {
+
+		try (RandomAccessFile file = new RandomAccessFile(pack, "r"); FileChannel channel = file.getChannel()) {
+
+			long size = channel.size();
+			if (size < MAGIC.length + TRAILER_SIZE) {
+				throw new IOException(String.format("%s is not a corpus pack", pack));
+			}
+
+			ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+			channel.read(trailer, size - TRAILER_SIZE);
+			trailer.flip();
+			long indexOffset = trailer.getLong();
+			int count = trailer.getInt();
+			byte[] magic = new byte[MAGIC.length];
+			trailer.get(magic);
+			if (!Arrays.equals(MAGIC, magic)) {
+				throw new IOException(String.format("%s is not a corpus pack", pack));
+			}
+
+			ByteBuffer indexBuffer = channel.map(MapMode.READ_ONLY, indexOffset, size - TRAILER_SIZE - indexOffset);
+			byte[] indexBytes = new byte[indexBuffer.remaining()];
+			indexBuffer.get(indexBytes);
+
+			List<Entry> entries = new ArrayList<>(count);
+			try (DataInputStream index = new DataInputStream(new ByteArrayInputStream(indexBytes))) {
+				for (int i = 0; i < count; i++) {
+					String path = index.readUTF();
+					String project = index.readUTF();
+					entries.add(new Entry(path, project.isEmpty() ? null : project, index.readLong(),
+							index.readInt(), index.readUTF()));
+				}
+			}
+
+			// The mapping stays valid after the channel is closed
+			int segmentCount = (int) ((indexOffset + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+			MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long start = (long) i * SEGMENT_SIZE;
+				segments[i] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, indexOffset - start));
+			}
+
+			return new CorpusPack(entries, segments);
+		}
+	}
+
+	/**
+	 * Read the content of an entry from the mapped region. Safe to be called
+	 * concurrently.
+	 */
+	public byte[] read(Entry entry) {
+		ByteBuffer segment = segments[(int) (entry.offset / SEGMENT_SIZE)].duplicate();
+		segment.position((int) (entry.offset % SEGMENT_SIZE));
+		byte[] content = new byte[entry.length];
+		segment.get(content);
+		return content;
+	}
+
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return the entries grouped by project, in the order they were packed
+	 */
+	public Map<String, List<Entry>> getEntriesByProject() {
+		Map<String, List<Entry>> byProject = new LinkedHashMap<>();
+		for (Entry entry : entries) {
+			String project = entry.project == null ? Project.UNKNOWN_ID : entry.project;
+			byProject.computeIfAbsent(project, p -> new ArrayList<>()).add(entry);
+		}
+		return byProject;
+	}
+
+}
@@ -1,22 +1,56 @@
 package de.heidelberg.collectionsexplorer;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import org.pmw.tinylog.Logger;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
 import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.context.ColumnarStore;
+import de.heidelberg.collectionsexplorer.context.ImportIndex;
+import de.heidelberg.collectionsexplorer.context.Report;
 import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.ResultStore;
+import de.heidelberg.collectionsexplorer.context.SortedSpillStore;
+import de.heidelberg.collectionsexplorer.context.SourceText;
 import de.heidelberg.collectionsexplorer.context.VisitorReportContext;
 import de.heidelberg.collectionsexplorer.context.VisitorType;
+import de.heidelberg.collectionsexplorer.sketch.TypeSketches;
+import de.heidelberg.collectionsexplorer.util.ContentHash;
 import me.tongfei.progressbar.ProgressBar;
 
 /**
@@ -27,16 +61,57 @@ import me.tongfei.progressbar.ProgressBar;
  * A result contains all the found "new" statements in a given file. A report is
  * a list of results, by file.
  * 
+ * Files are processed per {@link Project}: all the files of a project are
+ * handled by the same worker, using a parser (and type solver) created for that
+ * project only.
+ * 
+ * Parsing is admitted by an {@link AdmissionController}, so the number of
+ * files parsed concurrently adapts to the available heap.
+ * 
+ * Files are hashed before being parsed, so identical files (e.g. forks or
+ * vendored copies) are parsed and visited once and their results are copied to
+ * every path sharing that content.
+ * 
  * @author diego.costa
  *
  */
 public class FileProcessor {
 	
 	private static final String UTF_8 = "utf-8";
+	private static final String JAVA_EXTENSION = ".java";
+	private static final double DEFAULT_MAX_HEAP_USE = 0.7;
+	// Stopping the progress bar waits for its refresh, 1s by default
+	private static final int PROGRESS_UPDATE_MILLIS = 100;
 	
 	EnumMap<VisitorType, VisitorReportContext<?>> visitorCtxs;
 	Filter filter;
 	
+	int threads = Runtime.getRuntime().availableProcessors();
+	boolean solveSymbols = false;
+	boolean deduplicate = true;
+	File jarFile;
+	Supplier<ResultStore> storeFactory;
+	
+	// Shared with other processors when running as a server
+	ExecutorService sharedWorkers;
+	TypeSolverCache solverCache;
+	
+	// Sketches of each worker thread, merged once the processing is done
+	int sketchK = 0;
+	ThreadLocal<TypeSketches> sketches;
+	List<TypeSketches> workerSketches = Collections.synchronizedList(new ArrayList<>());
+	AdmissionController admission = new AdmissionController(DEFAULT_MAX_HEAP_USE);
+	
+	// Once set, the files not yet parsed are skipped
+	volatile boolean cancelled = false;
+	
+	// Results of each unique content, completed once the first file with that content is visited
+	Map<String, CompletableFuture<Map<VisitorType, Result<?>>>> resultsByContent = new ConcurrentHashMap<>();
+	AtomicInteger filesProcessed = new AtomicInteger();
+	AtomicInteger duplicatedFiles = new AtomicInteger();
+	AtomicLong elapsedNanos = new AtomicLong();
+	AtomicLong tailNanos = new AtomicLong();
+	
 	public FileProcessor(Filter filter) throws IOException {
 		super();
 		this.filter = filter;
@@ -57,45 +132,470 @@ public class FileProcessor {
 	 * in case of any {@link Exception} in the parse 
 	 */
 	public void process(File f) { 
+		process(f, new JavaParser(StaticJavaParser.getConfiguration()), null);
+	}
+	
+	/**
+	 * Process a file with the parser of its project.
+	 * 
+	 * @param f
+	 *            the file to be parsed
+	 * @param parser
+	 *            the parser configured for the project of the file
+	 * @param project
+	 *            the project id reported with every entry found
+	 */
+	public void process(File f, JavaParser parser, String project) { 
 
-		try(FileInputStream in = new FileInputStream(f.getAbsolutePath())){
+		if (cancelled) {
+			return;
+		}
+		
+		byte[] content;
+		try {
+			content = Files.readAllBytes(f.toPath());
+		} catch (Exception e) {
+			filesProcessed.incrementAndGet();
+			Logger.error(String.format("Error while processing the file %s.", f.getName()));
+			return;
+		}
+		
+		process(f.getAbsolutePath(), content, parser, project);
+	}
+	
+	/**
+	 * Process the content of a java file that is not necessarily stored on disk
+	 * (e.g. an archive entry).
+	 * 
+	 * @param path
+	 *            the path reported with every entry found
+	 * @param content
+	 *            the source code of the file
+	 * @param parser
+	 *            the parser configured for the project of the file
+	 * @param project
+	 *            the project id reported with every entry found
+	 */
+	public void process(String path, byte[] content, JavaParser parser, String project) {
+		process(path, content, null, parser, project);
+	}
+	
+	/**
+	 * Process the content of a java file whose hash is already known (e.g. a
+	 * {@link CorpusPack} entry).
+	 * 
+	 * @param hash
+	 *            the {@link ContentHash} of the content, computed when
+	 *            <code>null</code>
+	 */
+	public void process(String path, byte[] content, String hash, JavaParser parser, String project) {
+		
+		if (cancelled) {
+			return;
+		}
+		
+		filesProcessed.incrementAndGet();
+		
+		if (!deduplicate) {
+			visit(content, parser, path, project);
+			return;
+		}
+		
+		String key = hash == null ? ContentHash.of(content) : hash;
+		CompletableFuture<Map<VisitorType, Result<?>>> results = new CompletableFuture<>();
+		CompletableFuture<Map<VisitorType, Result<?>>> first = resultsByContent.putIfAbsent(key, results);
+		
+		if (first != null) {
+			// Same content already seen: copy its results once they are available
+			duplicatedFiles.incrementAndGet();
+			first.thenAccept(found -> copyResults(found, path, project));
+			return;
+		}
+		
+		Map<VisitorType, Result<?>> found = new EnumMap<>(VisitorType.class);
+		try {
+			found = visit(content, parser, path, project);
+		} finally {
+			results.complete(found);
+			if (!keepsResults()) {
+				// Only the duplicates already waiting get the results, later ones are parsed again
+				resultsByContent.remove(key, results);
+			}
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the reports keep the results of each file,
+	 *         so keeping them for the duplicates costs no memory. Reports
+	 *         handing their entries to a store do not.
+	 */
+	private boolean keepsResults() {
+		return visitorCtxs.values().stream().noneMatch(ctx -> ctx.getReport().hasStore());
+	}
+	
+	/**
+	 * Parse and visit the content of a java file without adding the results to
+	 * the reports (e.g. to compare two versions of the same file).
+	 * 
+	 * @return the result of each visitor, empty if the file could not be parsed
+	 */
+	public Map<VisitorType, Result<?>> analyze(String path, byte[] content, JavaParser parser, String project) {
+		return visit(content, parser, path, project, false);
+	}
+	
+	private Map<VisitorType, Result<?>> visit(byte[] content, JavaParser parser, String path, String project) {
+		return visit(content, parser, path, project, true);
+	}
+	
+	private Map<VisitorType, Result<?>> visit(byte[] content, JavaParser parser, String path, String project,
+			boolean report) {
+		
+		Map<VisitorType, Result<?>> found = new EnumMap<>(VisitorType.class);
+		
+		// The AST is held until all the visitors are done
+		long admitted;
+		try {
+			admitted = admission.acquire(path, content.length);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Logger.error(String.format("Interrupted while waiting to process the file %s.", path));
+			return found;
+		}
+		
+		try {
+			// Decoded once, parsed and kept to slice the text of the nodes
+			String source = new String(content, Charset.forName(UTF_8));
 			CompilationUnit cu;
 			try {
-				cu = StaticJavaParser.parse(in, Charset.forName(UTF_8));
+				cu = parse(parser, source);
+				
+				// Computed once and shared by all the visitors
+				ImportIndex.of(cu);
+				SourceText.attach(cu, source);
+				
+				for(Entry<VisitorType, VisitorReportContext<?>> ctx : visitorCtxs.entrySet()) {
+					found.put(ctx.getKey(), report ? ctx.getValue().inspect(cu, path, project)
+							: ctx.getValue().collect(cu, path, project));
+				}
 				
-				for(VisitorReportContext<?> ctx : visitorCtxs.values()) {
-					ctx.inspect(cu, f.getAbsolutePath());
+				if (report) {
+					sketch(found);
 				}
 				
 			} catch (Error e) {
-				Logger.error(String.format("Critical Javaparser error while processing the file %s.", f.getName()));
+				Logger.error(String.format("Critical Javaparser error while processing the file %s.", path));
 			}
 			
 		} catch (Exception e) {
 			// We can ignore small errors here
-			Logger.error(String.format("Error while processing the file %s.", f.getName()));
+			Logger.error(String.format("Error while processing the file %s.", path));
+		} finally {
+			admission.release(admitted);
+		}
+		
+		return found;
+	}
+	
+	private void copyResults(Map<VisitorType, Result<?>> found, String path, String project) {
+		for (Entry<VisitorType, Result<?>> result : found.entrySet()) {
+			visitorCtxs.get(result.getKey()).getReport().add(result.getValue().copy(path, project));
+		}
+		sketch(found);
+	}
+	
+	private void sketch(Map<VisitorType, Result<?>> found) {
+		if (sketches == null) {
+			return;
+		}
+		TypeSketches local = sketches.get();
+		for (Entry<VisitorType, Result<?>> result : found.entrySet()) {
+			for (GenericInfo info : result.getValue().getEntries()) {
+				local.add(result.getKey(), info);
+			}
 		}
 	}
 	
 	/**
 	 * Process a List of Files
 	 * @param filesList
-	 * @param solver 
 	 */
 	public void process(List<File> filesList) {
+		processProjects(ProjectResolver.resolve(filesList, null));
+	}
+	
+	/**
+	 * Process a List of Projects, largest first. When symbols are solved, each
+	 * project is handled by a single worker so its parser and type solver caches
+	 * are reused for all of its files. Otherwise every file is scheduled on its
+	 * own, so a large project does not end up on a single worker.
+	 * 
+	 * @param projects
+	 */
+	public void processProjects(List<Project> projects) {
 		
-		Logger.info(String.format("%d files to process", filesList.size()));
+		int filesCount = projects.stream().mapToInt(p -> p.getFiles().size()).sum();
+		Logger.info(String.format("%d files to process in %d projects using %d threads", filesCount,
+				projects.size(), threads));
 		
-		ProgressBar pb = new ProgressBar("Processing", filesList.size());
+		if (solveSymbols) {
+			processEach("Projects", projects, FileProcessor::sizeOf, this::processProject);
+		} else {
+			List<Project> files = new ArrayList<>(filesCount);
+			for (Project project : projects) {
+				for (File file : project.getFiles()) {
+					Project single = new Project(project.getId(), project.getRoot());
+					single.add(file);
+					files.add(single);
+				}
+			}
+			processEach("Processing", files, FileProcessor::sizeOf, this::processProject);
+		}
+		
+		logDuplicates();
+	}
+	
+	/**
+	 * Process the java files stored in archives (zip, jar, tar) without
+	 * extracting them. Each archive is streamed by a single worker and reported as
+	 * one project.
+	 * 
+	 * @param archives
+	 */
+	public void processArchives(List<File> archives) {
+		
+		Logger.info(String.format("%d archives to process using %d threads", archives.size(), threads));
+		processEach("Archives", archives, File::length, this::processArchive);
+		logDuplicates();
+	}
+	
+	/**
+	 * Process the java files of git repositories at a given revision, reading
+	 * them from the object database instead of a checked out working tree. Each
+	 * repository is read by a single worker and reported as one project.
+	 * 
+	 * @param repositories
+	 * @param revision
+	 *            any revision understood by git (branch, tag, commit id)
+	 */
+	public void processRevisions(List<File> repositories, String revision) {
+		
+		Logger.info(String.format("%d repositories to process at %s using %d threads", repositories.size(),
+				revision, threads));
+		processEach("Repositories", repositories, repository -> 0, repository -> processRevision(repository, revision));
+		logDuplicates();
+	}
+	
+	/**
+	 * Process the files of a {@link CorpusPack}, parsing them straight from the
+	 * mapped pack. As in {@link #processProjects(List)}, the files of each
+	 * project are handled by a single worker only when symbols are solved.
+	 * 
+	 * @param pack
+	 */
+	public void processPack(File pack) throws IOException {
+		
+		CorpusPack corpus = CorpusPack.open(pack);
+		List<Entry<String, List<CorpusPack.Entry>>> projects = new ArrayList<>(
+				corpus.getEntriesByProject().entrySet());
+		Logger.info(String.format("%d files to process in %d projects of %s using %d threads",
+				corpus.getEntries().size(), projects.size(), pack.getName(), threads));
+		
+		if (solveSymbols) {
+			processEach("Pack", projects, project -> sizeOf(project.getValue()), project -> {
+				JavaParser parser = createParser(new Project(project.getKey(), null));
+				for (CorpusPack.Entry entry : project.getValue()) {
+					process(entry.getPath(), corpus.read(entry), entry.getHash(), parser, entry.getProject());
+				}
+			});
+		} else {
+			processEach("Pack", corpus.getEntries(), CorpusPack.Entry::getLength, entry -> {
+				JavaParser parser = createParser(new Project(entry.getProject(), null));
+				process(entry.getPath(), corpus.read(entry), entry.getHash(), parser, entry.getProject());
+			});
+		}
+		logDuplicates();
+	}
+	
+	/**
+	 * Run the task for each item on a work-stealing pool, stepping the progress
+	 * bar once per item. Items are started largest first (longest processing
+	 * time first), so the small ones fill the gaps at the end of the run instead
+	 * of a large one keeping a single worker busy.
+	 * 
+	 * The tail of the run, from the moment a worker finds no more items to start
+	 * until the last item completes, is logged and added to the run summary.
+	 */
+	<T> void processEach(String label, List<T> items, ToLongFunction<T> sizeOf, Consumer<T> task) {
+		
+		List<T> ordered = new ArrayList<>(items);
+		ordered.sort(Comparator.comparingLong(sizeOf).reversed());
+		
+		ProgressBar pb = new ProgressBar(label, ordered.size(), PROGRESS_UPDATE_MILLIS);
 		pb.start();
 		
-		for(File file: filesList) {
-			Logger.debug(String.format("Processing file %s", file.getPath()));
-			process(file);
-			pb.step();
+		AtomicInteger started = new AtomicInteger();
+		AtomicLong firstIdle = new AtomicLong();
+		long start = System.nanoTime();
+		
+		ExecutorService executor = sharedWorkers != null ? sharedWorkers : Executors.newWorkStealingPool(threads);
+		List<Future<?>> submitted = new ArrayList<>(ordered.size());
+		for(T item : ordered) {
+			submitted.add(executor.submit(() -> {
+				started.incrementAndGet();
+				try {
+					task.accept(item);
+				} finally {
+					pb.step();
+					// Nothing left to start: this worker is now idle
+					if (started.get() == ordered.size()) {
+						firstIdle.compareAndSet(0, System.nanoTime());
+					}
+				}
+			}));
 		}
 		
+		if (sharedWorkers != null) {
+			awaitTasks(submitted);
+		} else {
+			awaitTermination(executor, pb);
+		}
+		long end = System.nanoTime();
 		pb.stop();
+		
+		long tail = firstIdle.get() == 0 ? 0 : end - firstIdle.get();
+		elapsedNanos.addAndGet(end - start);
+		tailNanos.addAndGet(tail);
+		Logger.info(String.format("%s: %d tasks in %.2fs, tail of %.2fs after the first idle worker", label,
+				ordered.size(), (end - start) / 1e9, tail / 1e9));
+	}
+	
+	private static long sizeOf(Project project) {
+		return project.getFiles().stream().mapToLong(File::length).sum();
+	}
+	
+	private static long sizeOf(List<CorpusPack.Entry> entries) {
+		return entries.stream().mapToLong(CorpusPack.Entry::getLength).sum();
+	}
+	
+	private void awaitTermination(ExecutorService executor, ProgressBar pb) {
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				Logger.debug(String.format("Waiting for %d tasks to be processed", pb.getMax() - pb.getCurrent()));
+			}
+		} catch (InterruptedException e) {
+			Logger.error("Interrupted while waiting for the files to be processed");
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Wait for the tasks submitted to the shared workers, which are not shut
+	 * down.
+	 */
+	private void awaitTasks(List<Future<?>> submitted) {
+		for (Future<?> task : submitted) {
+			try {
+				task.get();
+			} catch (ExecutionException e) {
+				Logger.error(String.format("Error while processing a task. Message: %s", e.getCause()));
+			} catch (InterruptedException e) {
+				Logger.error("Interrupted while waiting for the files to be processed");
+				submitted.forEach(t -> t.cancel(true));
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	private void logDuplicates() {
+		if (deduplicate) {
+			Logger.info(String.format("%d of %d files were duplicated content (%.1f%%)", duplicatedFiles.get(),
+					filesProcessed.get(), 100.0 * getDuplicateRatio()));
+		}
+	}
+	
+	private void processArchive(File archive) {
+		
+		Logger.debug(String.format("Processing archive %s", archive.getPath()));
+		String projectId = ArchiveReader.projectId(archive);
+		JavaParser parser = createParser(new Project(projectId, null));
+		
+		try {
+			ArchiveReader.readEntries(archive, JAVA_EXTENSION, (entry, content) -> process(
+					ArchiveReader.entryPath(archive, entry), content, parser, projectId));
+		} catch (Exception e) {
+			Logger.error(String.format("Error while reading the archive %s. Message: %s", archive.getName(),
+					e.getMessage()));
+		}
+	}
+	
+	private void processRevision(File repository, String revision) {
+		
+		Logger.debug(String.format("Processing repository %s at %s", repository.getPath(), revision));
+		String projectId = repository.getAbsoluteFile().getName();
+		JavaParser parser = createParser(new Project(projectId, null));
+		
+		try {
+			GitReader.readRevision(repository, revision, JAVA_EXTENSION,
+					(path, content) -> process(path, content, parser, projectId));
+		} catch (Exception e) {
+			Logger.error(String.format("Error while reading the repository %s. Message: %s", repository.getName(),
+					e.getMessage()));
+		}
+	}
+	
+	private void processProject(Project project) {
+		
+		Logger.debug(String.format("Processing project %s", project));
+		JavaParser parser = createParser(project);
+		
+		for(File file: project.getFiles()) {
+			Logger.debug(String.format("Processing file %s", file.getPath()));
+			process(file, parser, project.getId());
+		}
+	}
+	
+	JavaParser createParser(Project project) {
+		
+		ParserConfiguration config = new ParserConfiguration();
+		
+		if (solveSymbols) {
+			TypeSolver solver = solverCache == null ? createTypeSolver(project)
+					: solverCache.get(project.getRoot(), jarFile, () -> createTypeSolver(project));
+			config.setSymbolResolver(new JavaSymbolSolver(solver));
+		}
+		
+		return new JavaParser(config);
+	}
+	
+	private TypeSolver createTypeSolver(Project project) {
+		
+		CombinedTypeSolver solver = new CombinedTypeSolver(new ReflectionTypeSolver()); // Works for types we also use here (java.util, java.lang...)
+		
+		if (project.getRoot() != null) {
+			solver.add(new JavaParserTypeSolver(project.getRoot())); // Needs an accurate root directory
+																	// THIS IS VERY SLOW
+		}
+		
+		if (jarFile != null) {
+			try {
+				solver.add(new JarTypeSolver(jarFile));
+			} catch (IOException e) {
+				Logger.error(String.format("Jar file %s could not be read by the type solver.", jarFile));
+			}
+		}
+		
+		return solver;
+	}
+	
+	private CompilationUnit parse(JavaParser parser, String source) {
+		ParseResult<CompilationUnit> result = parser.parse(source);
+		if (!result.isSuccessful() || !result.getResult().isPresent()) {
+			throw new ParseProblemException(result.getProblems());
+		}
+		return result.getResult().get();
 	}
 
 
@@ -105,7 +605,162 @@ public class FileProcessor {
 
 
 	public void addVisitorContext(VisitorType type) {
-		this.visitorCtxs.put(type, new VisitorReportContext<>(type, filter));
+		addVisitorContext(type, Columns.ALL);
+	}
+
+	/**
+	 * Add a visitor context that only computes and reports the given columns.
+	 */
+	public void addVisitorContext(VisitorType type, Columns columns) {
+		Report report = storeFactory == null ? new Report() : new Report(storeFactory.get());
+		this.visitorCtxs.put(type, new VisitorReportContext<>(type, filter, report, columns));
+	}
+
+	/**
+	 * Add a visitor context whose entries are handed to the given store, e.g.
+	 * to stream them out as they are found.
+	 */
+	public void addVisitorContext(VisitorType type, Columns columns, ResultStore store) {
+		this.visitorCtxs.put(type, new VisitorReportContext<>(type, filter, new Report(store), columns));
+	}
+	
+	/**
+	 * Keep the reports of the visitor contexts added afterwards sorted by (path,
+	 * line), spilling sorted runs to disk above the given number of entries.
+	 */
+	public void setSortedOutput(int maxInMemory) {
+		this.storeFactory = () -> new SortedSpillStore(maxInMemory);
+	}
+	
+	/**
+	 * Feed the entries found into {@link TypeSketches} (one per worker thread)
+	 * while the files are visited.
+	 * 
+	 * @param k
+	 *            number of heavy hitters kept per dimension
+	 */
+	public void setSketches(int k) {
+		this.sketchK = k;
+		this.sketches = ThreadLocal.withInitial(() -> {
+			TypeSketches local = new TypeSketches(k);
+			workerSketches.add(local);
+			return local;
+		});
+	}
+	
+	/**
+	 * @return the sketches of all the workers merged, or <code>null</code> if
+	 *         sketches are not enabled
+	 */
+	public TypeSketches getSketches() {
+		if (sketches == null) {
+			return null;
+		}
+		TypeSketches merged = new TypeSketches(sketchK);
+		synchronized (workerSketches) {
+			for (TypeSketches local : workerSketches) {
+				merged.merge(local);
+			}
+		}
+		return merged;
+	}
+	
+	/**
+	 * Keep the reports of the visitor contexts added afterwards in a
+	 * {@link ColumnarStore}.
+	 */
+	public void setColumnarOutput() {
+		this.storeFactory = ColumnarStore::new;
+	}
+	
+	/**
+	 * Run the tasks on workers shared with other processors instead of a pool
+	 * of {@link #setThreads} workers created per call.
+	 */
+	public void setSharedWorkers(ExecutorService sharedWorkers) {
+		this.sharedWorkers = sharedWorkers;
+	}
+	
+	/**
+	 * Reuse the type solvers of the cache instead of creating them per project.
+	 */
+	public void setSolverCache(TypeSolverCache solverCache) {
+		this.solverCache = solverCache;
+	}
+	
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+	
+	public void setSolveSymbols(boolean solveSymbols) {
+		this.solveSymbols = solveSymbols;
+	}
+	
+	public void setJarFile(File jarFile) {
+		this.jarFile = jarFile;
+	}
+	
+	/**
+	 * @param maxHeapUse
+	 *            fraction of the maximum heap the live data and the files being
+	 *            parsed may use before the parsing is throttled
+	 */
+	public void setMaxHeapUse(double maxHeapUse) {
+		this.admission = new AdmissionController(maxHeapUse);
+	}
+	
+	/**
+	 * Share the memory budget of another processor, e.g. the other jobs of a
+	 * server.
+	 */
+	public void setAdmissionController(AdmissionController admission) {
+		this.admission = admission;
+	}
+	
+	/**
+	 * @return the number of files whose parsing was delayed by memory pressure
+	 */
+	public int getThrottledFiles() {
+		return admission.getThrottledFiles();
+	}
+	
+	public void setDeduplicate(boolean deduplicate) {
+		this.deduplicate = deduplicate;
+	}
+	
+	/**
+	 * Skip the files that are not parsed yet. The files being parsed are
+	 * finished and reported.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+	
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/**
+	 * @return the seconds spent processing, over all the processing phases
+	 */
+	public double getElapsedSeconds() {
+		return elapsedNanos.get() / 1e9;
+	}
+	
+	/**
+	 * @return the seconds spent waiting for the last tasks while some workers
+	 *         were idle, over all the processing phases
+	 */
+	public double getTailSeconds() {
+		return tailNanos.get() / 1e9;
+	}
+	
+	/**
+	 * @return the fraction of the processed files whose content was already seen
+	 */
+	public double getDuplicateRatio() {
+		int processed = filesProcessed.get();
+		return processed == 0 ? 0 : (double) duplicatedFiles.get() / processed;
 	}
 
 }
@@ -35,4 +35,24 @@ public class FileTraverser {
 		}
 		return files;
 	}
+
+	/**
+	 * Recursively find all the archives (zip, jar, tar) in a given path.
+	 * 
+	 * @param file
+	 *            a file or folder to be handled
+	 * @return the archives found
+	 */
+	public static List<File> visitAllArchives(File file) {
+
+		List<File> archives = new ArrayList<>();
+		if (file.isDirectory()) {
+			for (String child : file.list()) {
+				archives.addAll(visitAllArchives(new File(file, child)));
+			}
+		} else if (ArchiveReader.isArchive(file)) {
+			archives.add(file);
+		}
+		return archives;
+	}
 }
@@ -0,0 +1,119 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.pmw.tinylog.Logger;
+
+import de.heidelberg.collectionsexplorer.ArchiveReader.EntryHandler;
+
+/**
+ * GitReader reads the java files of a local git repository at a given
+ * revision straight from its object database, without checking it out.
+ * 
+ * @author diego.costa
+ *
+ */
+public class GitReader {
+
+	private static final String GIT_DIR = ".git";
+	static final int ABBREVIATED_COMMIT = 10;
+
+	/**
+	 * @return <code>true</code> if the folder is a git working tree or a bare
+	 *         repository
+	 */
+	public static boolean isRepository(File dir) {
+		return new File(dir, GIT_DIR).exists() || (new File(dir, "objects").isDirectory()
+				&& new File(dir, "refs").isDirectory() && new File(dir, "HEAD").isFile());
+	}
+
+	/**
+	 * Find the repositories of an input folder: the folder itself or, for a
+	 * dataset folder, each of its children that is a repository.
+	 */
+	public static List<File> findRepositories(File dir) {
+		List<File> repositories = new ArrayList<>();
+		if (isRepository(dir)) {
+			repositories.add(dir);
+		} else if (dir.isDirectory()) {
+			for (File child : dir.listFiles()) {
+				if (child.isDirectory() && isRepository(child)) {
+					repositories.add(child);
+				}
+			}
+		}
+		return repositories;
+	}
+
+	/**
+	 * Read all the files with the given extension of the tree of a revision.
+	 * 
+	 * @param repository
+	 *            the working tree or bare repository folder
+	 * @param revision
+	 *            any revision understood by git (branch, tag, commit id, HEAD~2)
+	 * @param extension
+	 *            the extension of the files to be read
+	 * @param handler
+	 *            called with the reported path (see {@link #revisionPath}) and
+	 *            content of each file
+	 * @return the abbreviated id of the commit the revision resolved to
+	 */
+	public static String readRevision(File repository, String revision, String extension, EntryHandler handler)
+			throws IOException {
+
+		try (Git git = Git.open(repository); RevWalk revWalk = new RevWalk(git.getRepository())) {
+
+			Repository repo = git.getRepository();
+			ObjectId commitId = repo.resolve(revision + "^{commit}");
+			if (commitId == null) {
+				throw new IOException(String.format("Revision %s not found in %s", revision, repository));
+			}
+
+			RevCommit commit = revWalk.parseCommit(commitId);
+			String abbreviated = commit.abbreviate(ABBREVIATED_COMMIT).name();
+
+			try (TreeWalk treeWalk = new TreeWalk(repo)) {
+				treeWalk.addTree(commit.getTree());
+				treeWalk.setRecursive(true);
+				treeWalk.setFilter(PathSuffixFilter.create(extension));
+
+				while (treeWalk.next()) {
+					String path = treeWalk.getPathString();
+					byte[] content;
+					try {
+						content = treeWalk.getObjectReader().open(treeWalk.getObjectId(0)).getBytes();
+					} catch (RuntimeException e) {
+						// e.g. objects too large to be held in memory
+						Logger.error(String.format("Error while reading %s at %s. Message: %s", path, revision,
+								e.getMessage()));
+						continue;
+					}
+					handler.accept(revisionPath(repository, abbreviated, path), content);
+				}
+			}
+
+			return abbreviated;
+		}
+	}
+
+	/**
+	 * @return the path reported for a file of a revision, using the git
+	 *         <code>&lt;commit&gt;:&lt;path&gt;</code> notation, e.g.
+	 *         <code>/dataset/0_1_guava@1a2b3c4d5e:src/A.java</code>
+	 */
+	public static String revisionPath(File repository, String commit, String path) {
+		return repository.getAbsolutePath() + "@" + commit + ":" + path;
+	}
+
+}
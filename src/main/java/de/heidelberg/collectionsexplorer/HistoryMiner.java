@@ -0,0 +1,268 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.pmw.tinylog.Logger;
+
+import com.github.javaparser.JavaParser;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.TypeEvolutionInfo;
+import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+/**
+ * HistoryMiner walks the (first-parent) history of local git repositories and
+ * reparses only the java files changed by each commit. The entries of the old
+ * and new version of each changed file are matched by
+ * {@link VisitorType#identityOf(GenericInfo)}, so moving code around is not
+ * reported as a change.
+ * 
+ * The entries added and removed by each commit are kept per visitor, together
+ * with an evolution table of the changes per commit and type.
+ * 
+ * @author diego.costa
+ *
+ */
+public class HistoryMiner {
+
+	private static final String JAVA_EXTENSION = ".java";
+	private static final String RANGE_SEPARATOR = "..";
+
+	private final FileProcessor processor;
+
+	private final Map<VisitorType, List<GenericInfo>> added = new EnumMap<>(VisitorType.class);
+	private final Map<VisitorType, List<GenericInfo>> removed = new EnumMap<>(VisitorType.class);
+	private final List<TypeEvolutionInfo> evolution = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Entries of the last version of a file, identified by its blob.
+	 */
+	private static class FileVersion {
+
+		final ObjectId blob;
+		final Map<VisitorType, Result<?>> results;
+
+		FileVersion(ObjectId blob, Map<VisitorType, Result<?>> results) {
+			this.blob = blob;
+			this.results = results;
+		}
+	}
+
+	public HistoryMiner(FileProcessor processor) {
+		this.processor = processor;
+		for (VisitorType type : processor.getAllVisitorContexts().keySet()) {
+			added.put(type, Collections.synchronizedList(new ArrayList<>()));
+			removed.put(type, Collections.synchronizedList(new ArrayList<>()));
+		}
+	}
+
+	/**
+	 * Mine the history of the repositories in parallel, one worker per
+	 * repository.
+	 * 
+	 * @param range
+	 *            <code>from..to</code> (commits reachable from <code>to</code>
+	 *            but not from <code>from</code>) or a single revision for its
+	 *            whole history
+	 */
+	public void mine(List<File> repositories, String range) {
+		Logger.info(String.format("Mining the history %s of %d repositories", range, repositories.size()));
+		processor.processEach("History", repositories, repository -> 0, repository -> {
+			try {
+				mine(repository, range);
+			} catch (Exception e) {
+				Logger.error(String.format("Error while mining the repository %s. Message: %s", repository.getName(),
+						e.getMessage()));
+			}
+		});
+	}
+
+	/**
+	 * Mine the history of a single repository.
+	 */
+	public void mine(File repository, String range) throws IOException {
+
+		String projectId = repository.getAbsoluteFile().getName();
+		JavaParser parser = processor.createParser(new Project(projectId, null));
+
+		Map<String, FileVersion> versions = new HashMap<>();
+		Map<String, Integer> netChanges = new HashMap<>();
+		int commits = 0;
+		int filesParsed = 0;
+
+		try (Git git = Git.open(repository);
+				RevWalk revWalk = new RevWalk(git.getRepository());
+				ObjectReader reader = git.getRepository().newObjectReader();
+				DiffFormatter diff = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+
+			Repository repo = git.getRepository();
+			diff.setRepository(repo);
+			diff.setPathFilter(PathSuffixFilter.create(JAVA_EXTENSION));
+
+			revWalk.setFirstParent(true);
+			int separator = range.indexOf(RANGE_SEPARATOR);
+			String to = separator < 0 ? range : range.substring(separator + RANGE_SEPARATOR.length());
+			revWalk.markStart(revWalk.parseCommit(resolve(repo, to, repository)));
+			if (separator >= 0) {
+				revWalk.markUninteresting(revWalk.parseCommit(resolve(repo, range.substring(0, separator), repository)));
+			}
+			revWalk.sort(RevSort.TOPO);
+			revWalk.sort(RevSort.REVERSE, true);
+
+			for (RevCommit commit : revWalk) {
+
+				String commitId = commit.abbreviate(GitReader.ABBREVIATED_COMMIT).name();
+				RevCommit parent = commit.getParentCount() == 0 ? null : revWalk.parseCommit(commit.getParent(0));
+				String parentId = parent == null ? null : parent.abbreviate(GitReader.ABBREVIATED_COMMIT).name();
+
+				Map<VisitorType, Map<String, int[]>> changes = new EnumMap<>(VisitorType.class);
+
+				for (DiffEntry entry : diff.scan(parent == null ? null : parent.getTree(), commit.getTree())) {
+
+					Map<VisitorType, Result<?>> before = Collections.emptyMap();
+					Map<VisitorType, Result<?>> after = Collections.emptyMap();
+
+					if (entry.getChangeType() != ChangeType.ADD) {
+						String oldPath = entry.getOldPath();
+						FileVersion version = versions.remove(oldPath);
+						ObjectId oldBlob = entry.getOldId().toObjectId();
+						if (version != null && version.blob.equals(oldBlob)) {
+							before = version.results;
+						} else {
+							// First time this file is touched in the range
+							before = processor.analyze(GitReader.revisionPath(repository, parentId, oldPath),
+									reader.open(oldBlob).getBytes(), parser, projectId);
+							filesParsed++;
+						}
+					}
+
+					if (entry.getChangeType() != ChangeType.DELETE) {
+						String newPath = entry.getNewPath();
+						ObjectId newBlob = entry.getNewId().toObjectId();
+						after = processor.analyze(GitReader.revisionPath(repository, commitId, newPath),
+								reader.open(newBlob).getBytes(), parser, projectId);
+						versions.put(newPath, new FileVersion(newBlob, after));
+						filesParsed++;
+					}
+
+					String changedPath = GitReader.revisionPath(repository, commitId,
+							entry.getChangeType() == ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath());
+					for (VisitorType type : added.keySet()) {
+						compare(type, before.get(type), after.get(type), changedPath,
+								changes.computeIfAbsent(type, t -> new TreeMap<>()));
+					}
+				}
+
+				report(repository, projectId, commit, commitId, changes, netChanges);
+				commits++;
+			}
+		}
+
+		Logger.info(String.format("%d commits of %s mined, %d file versions parsed", commits, projectId,
+				filesParsed));
+	}
+
+	/**
+	 * Match the entries of two versions of a file and record the added and
+	 * removed ones.
+	 */
+	private void compare(VisitorType type, Result<?> before, Result<?> after, String changedPath,
+			Map<String, int[]> changes) {
+
+		Map<String, Deque<GenericInfo>> previous = new HashMap<>();
+		if (before != null) {
+			for (GenericInfo info : before.getEntries()) {
+				previous.computeIfAbsent(type.identityOf(info), k -> new ArrayDeque<>()).add(info);
+			}
+		}
+
+		if (after != null) {
+			for (GenericInfo info : after.getEntries()) {
+				Deque<GenericInfo> same = previous.get(type.identityOf(info));
+				if (same != null && !same.isEmpty()) {
+					same.poll();
+				} else {
+					added.get(type).add(info);
+					changes.computeIfAbsent(String.valueOf(type.typeOf(info)), k -> new int[2])[0]++;
+				}
+			}
+		}
+
+		for (Deque<GenericInfo> gone : previous.values()) {
+			for (GenericInfo info : gone) {
+				// Reported at the commit that removed it
+				GenericInfo copy = info.copy();
+				copy.setPath(changedPath);
+				removed.get(type).add(copy);
+				changes.computeIfAbsent(String.valueOf(type.typeOf(info)), k -> new int[2])[1]++;
+			}
+		}
+	}
+
+	private void report(File repository, String projectId, RevCommit commit, String commitId,
+			Map<VisitorType, Map<String, int[]>> changes, Map<String, Integer> netChanges) {
+
+		String commitTime = Instant.ofEpochSecond(commit.getCommitTime()).toString();
+
+		for (Entry<VisitorType, Map<String, int[]>> byVisitor : changes.entrySet()) {
+			for (Entry<String, int[]> byType : byVisitor.getValue().entrySet()) {
+
+				int[] count = byType.getValue();
+				int net = netChanges.merge(byVisitor.getKey() + byType.getKey(), count[0] - count[1], Integer::sum);
+
+				TypeEvolutionInfo info = TypeEvolutionInfo.builder().commit(commitId).commitTime(commitTime)
+						.visitorType(byVisitor.getKey().name()).type(byType.getKey()).added(count[0])
+						.removed(count[1]).netChange(net).build();
+				info.setPath(repository.getAbsolutePath());
+				info.setProject(projectId);
+				evolution.add(info);
+			}
+		}
+	}
+
+	private ObjectId resolve(Repository repo, String revision, File repository) throws IOException {
+		ObjectId id = repo.resolve(revision + "^{commit}");
+		if (id == null) {
+			throw new IOException(String.format("Revision %s not found in %s", revision, repository));
+		}
+		return id;
+	}
+
+	public List<GenericInfo> getAdded(VisitorType type) {
+		return added.get(type);
+	}
+
+	public List<GenericInfo> getRemoved(VisitorType type) {
+		return removed.get(type);
+	}
+
+	public List<TypeEvolutionInfo> getEvolution() {
+		return evolution;
+	}
+
+}
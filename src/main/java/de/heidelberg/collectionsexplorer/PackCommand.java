@@ -0,0 +1,47 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.pmw.tinylog.Logger;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Subcommand that packs the java files of the input directories into a single
+ * {@link CorpusPack}, which can later be given as input to the explorer.
+ * 
+ * @author diego.costa
+ *
+ */
+@Command(name = "pack", description = "Packs the java files of the input directories into a single file, to be used as input of the explorer.", mixinStandardHelpOptions = true)
+public class PackCommand implements Callable<Void> {
+
+	private static final String JAVA_EXTENSION = ".java";
+
+	@Parameters(index = "0", arity = "1..*", paramLabel = "dir", description = "Input directories to be packed")
+	private File[] inputDirectories;
+
+	@Option(arity = "1", required = true, names = {
+			"-out" }, paramLabel = "out", description = "Pack file to be written (e.g. dataset.pack)")
+	private File packFile;
+
+	@Override
+	public Void call() throws Exception {
+
+		List<Project> projects = new ArrayList<>();
+		for (File dir : inputDirectories) {
+			Logger.info(String.format("Adding directory %s", dir.getPath()));
+			projects.addAll(ProjectResolver.resolve(FileTraverser.visitAllDirsAndFiles(dir, JAVA_EXTENSION), dir));
+		}
+
+		Logger.info(String.format("Packing %d projects into %s", projects.size(), packFile));
+		CorpusPack.write(packFile, projects);
+		return null;
+	}
+
+}
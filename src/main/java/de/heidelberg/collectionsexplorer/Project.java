@@ -0,0 +1,52 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A project groups the java files that belong to the same repository of the
+ * dataset (e.g. <code>dataset/12_3456_guava</code>). Files of a project are
+ * processed together, so they share the same parser and type solver.
+ * 
+ * @author diego.costa
+ *
+ */
+public class Project {
+
+	public static final String UNKNOWN_ID = "unknown";
+
+	private final String id;
+	private final File root;
+	private final List<File> files = new ArrayList<>();
+
+	public Project(String id, File root) {
+		this.id = id;
+		this.root = root;
+	}
+
+	public void add(File file) {
+		files.add(file);
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return the root directory of the project or <code>null</code> if it could
+	 *         not be identified
+	 */
+	public File getRoot() {
+		return root;
+	}
+
+	public List<File> getFiles() {
+		return files;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (%d files)", id, files.size());
+	}
+}
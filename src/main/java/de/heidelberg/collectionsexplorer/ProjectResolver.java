@@ -0,0 +1,77 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * ProjectResolver groups java files into {@link Project}s. A project root is
+ * the closest ancestor folder following the dataset layout created by
+ * <code>scripts/clone-repositories.py</code>
+ * (<code>&lt;count&gt;_&lt;id&gt;_&lt;name&gt;</code>). Files outside of such a
+ * folder belong to the input directory they were found in.
+ * 
+ * @author diego.costa
+ *
+ */
+public class ProjectResolver {
+
+	private static final Pattern DATASET_FOLDER = Pattern.compile("^\\d+_\\d+_.+$");
+
+	/**
+	 * Group the files into projects, keeping the order in which the projects were
+	 * first found.
+	 * 
+	 * @param files
+	 *            the java files to be grouped
+	 * @param inputRoot
+	 *            the input directory the files were found in, or <code>null</code>
+	 *            when the files were listed explicitly
+	 * @return the list of projects found
+	 */
+	public static List<Project> resolve(List<File> files, File inputRoot) {
+
+		Map<File, Project> projects = new LinkedHashMap<>();
+		// Most files share their parent folder, so we only walk up once per folder
+		Map<File, File> rootByFolder = new HashMap<>();
+
+		for (File file : files) {
+			File folder = file.getAbsoluteFile().getParentFile();
+			File root = rootByFolder.computeIfAbsent(folder, f -> findProjectRoot(f, inputRoot));
+
+			Project project = projects.computeIfAbsent(root, r -> new Project(projectId(r), r));
+			project.add(file);
+		}
+
+		return new ArrayList<>(projects.values());
+	}
+
+	/**
+	 * Walk up from the folder until a dataset project folder is found.
+	 * 
+	 * @return the project root or the input root if none was found
+	 */
+	static File findProjectRoot(File folder, File inputRoot) {
+
+		File stop = inputRoot == null ? null : inputRoot.getAbsoluteFile().getParentFile();
+
+		for (File current = folder; current != null && !current.equals(stop); current = current.getParentFile()) {
+			if (DATASET_FOLDER.matcher(current.getName()).matches()) {
+				return current;
+			}
+		}
+
+		return inputRoot == null ? null : inputRoot.getAbsoluteFile();
+	}
+
+	private static String projectId(File root) {
+		if (root == null || root.getName().isEmpty()) {
+			return Project.UNKNOWN_ID;
+		}
+		return root.getName();
+	}
+}
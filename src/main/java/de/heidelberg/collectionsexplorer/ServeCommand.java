@@ -0,0 +1,215 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.pmw.tinylog.Logger;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Subcommand that keeps the explorer resident and runs analysis jobs sent over
+ * a local socket, so the JVM startup, the class loading and the JIT warm-up
+ * are paid once. All the jobs share one pool of workers, one
+ * {@link TypeSolverCache} and one {@link AdmissionController}, so the heap
+ * budget holds for all the running jobs together.
+ * 
+ * The protocol is line based: each line sent is a job, with the same arguments
+ * of a run of the explorer (e.g. <code>dataset/0_guava -new -out guava-</code>,
+ * double quotes group an argument with spaces), answered once the job is done
+ * with <code>ok &lt;seconds&gt;</code> or <code>error &lt;message&gt;</code>
+ * when it failed. Jobs cannot <code>-watch</code> their inputs.
+ * <code>shutdown</code> stops the server once the running jobs are done. A
+ * client sends its jobs one after the other; jobs of different connections
+ * run concurrently.
+ * 
+ * @author diego.costa
+ *
+ */
+@Command(name = "serve", description = "Stays resident and runs the analysis jobs sent over a local socket, one job (the arguments of a run) per line.", mixinStandardHelpOptions = true)
+public class ServeCommand implements Callable<Void> {
+
+	static final String SHUTDOWN = "shutdown";
+
+	@Option(arity = "1", names = {
+			"-port" }, paramLabel = "port", description = "Local port to listen on (default: 7878, 0 for any free port)")
+	private int port = 7878;
+
+	@Option(arity = "1", names = {
+			"-jobs" }, paramLabel = "jobs", description = "Number of jobs run concurrently (default: 2)")
+	private int jobs = 2;
+
+	@Option(arity = "1", names = {
+			"-threads" }, paramLabel = "threads", description = "Number of workers shared by all the jobs (default: number of available processors)")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Option(arity = "1", names = {
+			"-maxheap" }, paramLabel = "percent", description = "Percentage of the maximum heap the live data and the files being parsed by all the jobs may use before parsing is throttled (default: 70)")
+	private int maxHeapPercent = 70;
+
+	private ExecutorService workers;
+	private ExecutorService jobRunner;
+	private final TypeSolverCache solverCache = new TypeSolverCache();
+	private AdmissionController admission;
+	private volatile boolean running = true;
+
+	@Override
+	public Void call() throws Exception {
+
+		workers = Executors.newWorkStealingPool(threads);
+		admission = new AdmissionController(maxHeapPercent / 100.0);
+		jobRunner = Executors.newFixedThreadPool(jobs);
+		ExecutorService connections = Executors.newCachedThreadPool();
+
+		try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			Logger.info(String.format("Listening on %s:%d (%d concurrent jobs, %d shared workers)",
+					server.getInetAddress().getHostAddress(), server.getLocalPort(), jobs, threads));
+
+			while (running) {
+				Socket client = server.accept();
+				connections.submit(() -> serve(client, server));
+			}
+		} catch (SocketException e) {
+			// Closed by a shutdown
+			Logger.debug(String.format("Server socket closed: %s", e.getMessage()));
+		} finally {
+			connections.shutdown();
+			jobRunner.shutdown();
+			jobRunner.awaitTermination(1, TimeUnit.DAYS);
+			workers.shutdown();
+		}
+
+		Logger.info("Server stopped");
+		return null;
+	}
+
+	private void serve(Socket client, ServerSocket server) {
+		try (Socket socket = client;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				if (line.trim().equals(SHUTDOWN)) {
+					Logger.info("Shutdown requested, waiting for the running jobs");
+					running = false;
+					out.println("bye");
+					server.close();
+					return;
+				}
+				out.println(submit(line));
+			}
+
+		} catch (IOException e) {
+			Logger.error(String.format("Error while serving a client. Message: %s", e.getMessage()));
+		}
+	}
+
+	private String submit(String line) {
+		Future<String> job = jobRunner.submit(() -> run(line));
+		try {
+			return job.get();
+		} catch (ExecutionException e) {
+			return "error " + e.getCause().getMessage();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "error interrupted";
+		}
+	}
+
+	/**
+	 * Run a job with the shared workers and type solvers.
+	 * 
+	 * @return the reply sent to the client
+	 */
+	String run(String line) {
+
+		long start = System.nanoTime();
+		Logger.info(String.format("Starting the job: %s", line));
+		try {
+			List<CommandLine> parsed = new CommandLine(new CollectionsExplorer()).parse(split(line));
+			Object command = parsed.get(parsed.size() - 1).getCommand();
+
+			if (command instanceof ServeCommand) {
+				return "error a job cannot start another server";
+			}
+			CollectionsExplorer explorer = null;
+			if (command instanceof CollectionsExplorer) {
+				explorer = (CollectionsExplorer) command;
+				if (explorer.isWatch()) {
+					// Would hold one of the job runners forever
+					return "error -watch is not supported in server jobs";
+				}
+				explorer.share(workers, solverCache, admission);
+			}
+			((Callable<?>) command).call();
+
+			if (explorer != null && explorer.getFailure() != null) {
+				Logger.error(String.format("The job %s failed. Message: %s", line, explorer.getFailure()));
+				return "error " + explorer.getFailure();
+			}
+
+		} catch (Exception e) {
+			Logger.error(String.format("Error while running the job %s. Message: %s", line, e.getMessage()));
+			return "error " + e.getMessage();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		Logger.info(String.format("Job done in %.2fs (%d type solvers cached): %s", seconds, solverCache.size(),
+				line));
+		return String.format("ok %.2f", seconds);
+	}
+
+	/**
+	 * Split a job line into its arguments; double quotes group an argument with
+	 * spaces.
+	 */
+	static String[] split(String line) {
+		List<String> args = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		boolean inArgument = false;
+
+		for (char c : line.toCharArray()) {
+			if (c == '"') {
+				quoted = !quoted;
+				inArgument = true;
+			} else if (Character.isWhitespace(c) && !quoted) {
+				if (inArgument) {
+					args.add(current.toString());
+					current.setLength(0);
+					inArgument = false;
+				}
+			} else {
+				current.append(c);
+				inArgument = true;
+			}
+		}
+		if (inArgument) {
+			args.add(current.toString());
+		}
+		return args.toArray(new String[0]);
+	}
+
+}
@@ -0,0 +1,266 @@
+package de.heidelberg.collectionsexplorer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.pmw.tinylog.Logger;
+
+import com.github.javaparser.JavaParser;
+
+import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.VisitorReportContext;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+/**
+ * SourceWatcher keeps the reports of a {@link FileProcessor} up to date with
+ * the input directories it has processed. The directories are registered with
+ * a {@link WatchService}: the java files created or modified are parsed again
+ * and replace their previous results, and the results of the files deleted
+ * are retracted.
+ *
+ * Changes arriving together (e.g. a checkout or a save of several files) are
+ * applied as one batch, after which the handler is told the files changed,
+ * e.g. to update their rows in a database. The handler is told again once the
+ * changes have settled, e.g. to write whole reports again only once for a
+ * series of batches. The reports must keep the results of each file in
+ * memory, not in a store.
+ *
+ * @author diego.costa
+ *
+ */
+public class SourceWatcher implements Closeable {
+
+	private static final String JAVA_EXTENSION = ".java";
+
+	// Events closer than this are applied in the same batch
+	static final long QUIET_MILLIS = 20;
+
+	public interface ChangeHandler {
+
+		/**
+		 * Called after each batch of changes.
+		 * 
+		 * @param paths
+		 *            the absolute paths of the files parsed again, and of the
+		 *            files and folders retracted
+		 */
+		void changed(Set<String> paths) throws Exception;
+
+		/**
+		 * Called once no change arrived for the settle time after a batch, and
+		 * when the watch stops after a batch.
+		 */
+		default void settled() throws Exception {
+		}
+	}
+
+	private final FileProcessor processor;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> directories = new HashMap<>();
+	// Input directory each watched folder belongs to, to resolve the project of its files
+	private final Map<Path, File> inputRoots = new HashMap<>();
+	// Parser of each project root, the type solver of a parser indexes the sources of its root
+	final Map<File, JavaParser> parsers = new HashMap<>();
+
+	public SourceWatcher(FileProcessor processor) throws IOException {
+		this.processor = processor;
+		this.watchService = FileSystems.getDefault().newWatchService();
+	}
+
+	/**
+	 * Watch an input directory and all of its folders.
+	 */
+	public void register(File inputRoot) throws IOException {
+		File root = inputRoot.getAbsoluteFile();
+		registerAll(root.toPath(), root);
+	}
+
+	private void registerAll(Path start, File inputRoot) throws IOException {
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+				inputRoots.put(dir, inputRoot);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Apply the changes as they come, until the thread is interrupted or the
+	 * watcher is closed.
+	 * 
+	 * @param settleMillis
+	 *            time without changes after which they have settled
+	 */
+	public void watch(ChangeHandler handler, long settleMillis) throws Exception {
+
+		boolean settled = true;
+		while (true) {
+			WatchKey key;
+			try {
+				key = settled ? watchService.take() : watchService.poll(settleMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				break;
+			}
+			if (key == null) {
+				handler.settled();
+				settled = true;
+				continue;
+			}
+
+			Set<Path> changed = new LinkedHashSet<>();
+			try {
+				while (key != null) {
+					collect(key, changed);
+					key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				break;
+			}
+
+			long start = System.nanoTime();
+			Set<String> applied = apply(changed);
+			if (!applied.isEmpty()) {
+				handler.changed(applied);
+				settled = false;
+				Logger.info(String.format("%d changed files applied in %d ms", applied.size(),
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+			}
+		}
+
+		if (!settled) {
+			handler.settled();
+		}
+	}
+
+	private void collect(WatchKey key, Set<Path> changed) {
+
+		Path dir = directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+
+			if (event.kind() == OVERFLOW) {
+				Logger.warn(String.format("Too many changes at once in %s, some of them were missed", dir));
+				continue;
+			}
+
+			Path path = dir.resolve((Path) event.context());
+			if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+				// A new folder is watched too, and the files it already holds are added
+				try (Stream<Path> files = Files.walk(path)) {
+					registerAll(path, inputRoots.get(dir));
+					files.filter(Files::isRegularFile).forEach(changed::add);
+				} catch (IOException e) {
+					Logger.error(String.format("Error while watching the folder %s. Message: %s", path,
+							e.getMessage()));
+				}
+				continue;
+			}
+			changed.add(path);
+		}
+
+		// No longer valid once its folder is deleted
+		if (!key.reset()) {
+			inputRoots.remove(directories.remove(key));
+		}
+	}
+
+	/**
+	 * Parse the changed files again and retract the results of the deleted
+	 * files and folders.
+	 *
+	 * @return the absolute paths of the changes applied
+	 */
+	Set<String> apply(Set<Path> changed) {
+
+		Set<String> applied = new LinkedHashSet<>();
+		Set<File> parsedRoots = new HashSet<>();
+		for (Path path : changed) {
+			if (Files.isRegularFile(path)) {
+				if (path.toString().endsWith(JAVA_EXTENSION) && reparse(path, parsedRoots)) {
+					applied.add(path.toFile().getAbsolutePath());
+				}
+			} else if (!Files.exists(path) && retract(path)) {
+				applied.add(path.toFile().getAbsolutePath());
+			}
+		}
+
+		// The type solvers read the sources lazily, the next batch may change what they have read
+		if (processor.solveSymbols) {
+			parsers.keySet().removeAll(parsedRoots);
+		}
+		return applied;
+	}
+
+	private boolean reparse(Path path, Set<File> parsedRoots) {
+
+		File file = path.toFile();
+		Project project = ProjectResolver.resolve(Collections.singletonList(file), inputRoots.get(path.getParent()))
+				.get(0);
+
+		byte[] content;
+		try {
+			content = Files.readAllBytes(path);
+		} catch (IOException e) {
+			Logger.error(String.format("Error while reading the file %s. Message: %s", path, e.getMessage()));
+			return false;
+		}
+
+		JavaParser parser = parsers.computeIfAbsent(project.getRoot(), root -> processor.createParser(project));
+		parsedRoots.add(project.getRoot());
+		Map<VisitorType, Result<?>> found = processor.analyze(file.getAbsolutePath(), content, parser,
+				project.getId());
+		if (found.isEmpty()) {
+			// Often saved halfway, the next change will be parsed again
+			Logger.warn(String.format("%s could not be parsed, keeping its previous entries", path));
+			return false;
+		}
+
+		for (Entry<VisitorType, Result<?>> result : found.entrySet()) {
+			processor.getAllVisitorContexts().get(result.getKey()).getReport().replace(file.getAbsolutePath(),
+					result.getValue());
+		}
+		Logger.debug(String.format("Parsed %s again", path));
+		return true;
+	}
+
+	private boolean retract(Path path) {
+		int retracted = 0;
+		for (VisitorReportContext<?> context : processor.getAllVisitorContexts().values()) {
+			retracted += context.getReport().retract(path.toFile().getAbsolutePath());
+		}
+		Logger.debug(String.format("Retracted %d results of %s", retracted, path));
+		return retracted > 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+}
@@ -0,0 +1,230 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import de.heidelberg.collectionsexplorer.beans.EstimateInfo;
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.context.Report;
+import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+/**
+ * StratifiedSample draws a random sample of the files of each project (the
+ * strata) and estimates, from the results of the sampled files, the number of
+ * entries of each type in the whole corpus and their share of all the entries,
+ * with confidence intervals.
+ * 
+ * Counts use the stratified estimator of a total; shares use the combined
+ * ratio estimator, with its variance approximated by linearization. Both
+ * include the finite population correction of each project.
+ * 
+ * @author diego.costa
+ *
+ */
+public class StratifiedSample {
+
+	/**
+	 * Type of the estimate of all the entries of a visitor
+	 */
+	public static final String ALL_TYPES = "*";
+
+	// Two-sided 95% normal quantile
+	private static final double Z_95 = 1.96;
+
+	private final List<Project> projects = new ArrayList<>();
+	private final Map<String, Integer> populationSizes = new LinkedHashMap<>();
+	private final Map<String, Integer> sampleSizes = new HashMap<>();
+
+	private StratifiedSample() {
+	}
+
+	// Files sampled at least per project, fewer only when the project has fewer
+	static final int MIN_STRATUM_SAMPLE = 2;
+
+	/**
+	 * Sample the same fraction of the files of every project, at least
+	 * {@link #MIN_STRATUM_SAMPLE} files: the variance of a project is estimated
+	 * from the spread of its sampled files, and one file has none. The sample
+	 * only depends on the seed and the files of each project, not on the order
+	 * the projects were found.
+	 */
+	public static StratifiedSample draw(List<Project> projects, double fraction, long seed) {
+
+		StratifiedSample sample = new StratifiedSample();
+		for (Project project : projects) {
+
+			List<File> files = new ArrayList<>(project.getFiles());
+			if (files.isEmpty()) {
+				continue;
+			}
+			files.sort(Comparator.comparing(File::getPath));
+			Collections.shuffle(files, new Random(seed ^ project.getId().hashCode()));
+
+			int size = Math.min(files.size(), Math.max(MIN_STRATUM_SAMPLE, (int) Math.ceil(fraction * files.size())));
+			Project sampled = new Project(project.getId(), project.getRoot());
+			files.subList(0, size).forEach(sampled::add);
+
+			sample.projects.add(sampled);
+			sample.populationSizes.merge(project.getId(), files.size(), Integer::sum);
+			sample.sampleSizes.merge(project.getId(), size, Integer::sum);
+		}
+		return sample;
+	}
+
+	/**
+	 * @return the projects with the sampled files only
+	 */
+	public List<Project> getProjects() {
+		return projects;
+	}
+
+	public int getPopulationSize() {
+		return populationSizes.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	public int getSampleSize() {
+		return sampleSizes.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	/**
+	 * Estimate the corpus counts of every type found by the visitor in the
+	 * sampled files, starting with {@link #ALL_TYPES}.
+	 */
+	public List<EstimateInfo> estimate(VisitorType visitorType, Report report) {
+
+		// Entries per type of each sampled file, by project
+		Map<String, List<Map<String, Integer>>> filesByProject = new HashMap<>();
+		Set<String> types = new LinkedHashSet<>();
+		types.add(ALL_TYPES);
+
+		for (Result<?> result : report.getResults()) {
+			Map<String, Integer> counts = new HashMap<>();
+			for (GenericInfo entry : result.getEntries()) {
+				String type = String.valueOf(visitorType.typeOf(entry));
+				counts.merge(type, 1, Integer::sum);
+				counts.merge(ALL_TYPES, 1, Integer::sum);
+				types.add(type);
+			}
+			filesByProject.computeIfAbsent(result.getProject(), p -> new ArrayList<>()).add(counts);
+		}
+
+		double[] all = estimateTotal(filesByProject, ALL_TYPES);
+
+		List<EstimateInfo> estimates = new ArrayList<>();
+		for (String type : types) {
+
+			double[] total = estimateTotal(filesByProject, type);
+			// No entries in the sample: no proportion to estimate
+			double proportion = all[0] == 0 ? 0 : total[0] / all[0];
+			double proportionError = all[0] == 0 ? 0
+					: Z_95 * Math.sqrt(ratioVariance(filesByProject, type, proportion)) / all[0];
+
+			estimates.add(EstimateInfo.builder().visitorType(visitorType.name()).type(type)
+					.sampledFiles(getSampleSize()).totalFiles(getPopulationSize()).sampledCount((int) total[2])
+					.estimatedCount(total[0]).estimatedCountLow(Math.max(0, total[0] - total[1]))
+					.estimatedCountHigh(total[0] + total[1]).proportion(proportion)
+					.proportionLow(Math.max(0, proportion - proportionError))
+					.proportionHigh(Math.min(1, proportion + proportionError)).build());
+		}
+
+		estimates.sort(Comparator.comparingDouble(EstimateInfo::getEstimatedCount).reversed());
+		return estimates;
+	}
+
+	/**
+	 * @return the estimated total, the half width of its 95% confidence interval
+	 *         and the count in the sample
+	 */
+	private double[] estimateTotal(Map<String, List<Map<String, Integer>>> filesByProject, String type) {
+
+		double total = 0;
+		double variance = 0;
+		double sampled = 0;
+
+		for (Map.Entry<String, Integer> stratum : populationSizes.entrySet()) {
+			double[] values = valuesOf(filesByProject, stratum.getKey(), type, 0, null);
+			int n = values.length;
+			int size = stratum.getValue();
+
+			double sum = 0;
+			for (double value : values) {
+				sum += value;
+			}
+			double mean = sum / n;
+			total += size * mean;
+			sampled += sum;
+			variance += stratumVariance(values, mean, size);
+		}
+
+		return new double[] { total, Z_95 * Math.sqrt(variance), sampled };
+	}
+
+	/**
+	 * Variance of the ratio estimator, from the residuals
+	 * <code>y - ratio * x</code> of each file.
+	 */
+	private double ratioVariance(Map<String, List<Map<String, Integer>>> filesByProject, String type,
+			double ratio) {
+
+		double variance = 0;
+		for (Map.Entry<String, Integer> stratum : populationSizes.entrySet()) {
+			double[] residuals = valuesOf(filesByProject, stratum.getKey(), type, ratio, ALL_TYPES);
+			double mean = 0;
+			for (double residual : residuals) {
+				mean += residual / residuals.length;
+			}
+			variance += stratumVariance(residuals, mean, stratum.getValue());
+		}
+		return variance;
+	}
+
+	/**
+	 * @return the value of each sampled file of the project: the count of the
+	 *         type minus <code>ratio</code> times the count of the other type
+	 *         (if any). Sampled files without results (e.g. parse errors) count
+	 *         as zero.
+	 */
+	private double[] valuesOf(Map<String, List<Map<String, Integer>>> filesByProject, String project,
+			String type, double ratio, String otherType) {
+
+		double[] values = new double[sampleSizes.get(project)];
+		List<Map<String, Integer>> files = filesByProject.getOrDefault(project, Collections.emptyList());
+		for (int i = 0; i < files.size() && i < values.length; i++) {
+			Map<String, Integer> counts = files.get(i);
+			values[i] = counts.getOrDefault(type, 0);
+			if (otherType != null) {
+				values[i] -= ratio * counts.getOrDefault(otherType, 0);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Variance contribution of a stratum to an estimated total:
+	 * <code>N^2 (1 - n/N) s^2 / n</code>. A single sampled file is the whole
+	 * stratum (see {@link #draw}), which adds no variance.
+	 */
+	private double stratumVariance(double[] values, double mean, int size) {
+		int n = values.length;
+		if (n < 2) {
+			return 0;
+		}
+		double squares = 0;
+		for (double value : values) {
+			squares += (value - mean) * (value - mean);
+		}
+		double sampleVariance = squares / (n - 1);
+		return (double) size * size * (1 - (double) n / size) * sampleVariance / n;
+	}
+
+}
@@ -0,0 +1,281 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.pmw.tinylog.Logger;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.context.ResultStore;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+/**
+ * StreamingExplorer is the entry point for embedding the explorer in another
+ * application. Instead of collecting the reports, it publishes the entries of
+ * each analysis while the files are parsed:
+ *
+ * <pre>
+ * StreamingExplorer explorer = new StreamingExplorer(Filter.NO_FILTER);
+ * explorer.setThreads(4);
+ * explorer.publisher(VisitorType.OBJECT_CREATION, ObjectCreationInfo.class).subscribe(subscriber);
+ * explorer.start(Arrays.asList(new File("dataset"))).join();
+ * </pre>
+ *
+ * A subscriber that does not keep up holds the parsing workers back once its
+ * buffer is full. The files not parsed yet are skipped once every subscriber
+ * has cancelled its subscription, or when the future returned by
+ * {@link #start} is cancelled. Nothing is kept once published: the files are
+ * not deduplicated, each copy of a file is parsed and published.
+ *
+ * @author diego.costa
+ *
+ */
+public class StreamingExplorer {
+
+	private static final String JAVA_EXTENSION = ".java";
+
+	// Between two checks for room in the buffers of the subscribers
+	private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final FileProcessor processor;
+	private final Map<VisitorType, SubmissionPublisher<? extends GenericInfo>> publishers = new EnumMap<>(
+			VisitorType.class);
+
+	private Executor executor = ForkJoinPool.commonPool();
+	private int bufferSize = Flow.defaultBufferSize();
+	private boolean started = false;
+
+	// Runs the exploration in the background, shut down once it is done
+	private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "collections-explorer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public StreamingExplorer(Filter filter) throws IOException {
+		this.processor = new FileProcessor(filter);
+		// Nothing is kept: the results of a duplicated file would only pile up
+		this.processor.setDeduplicate(false);
+	}
+
+	public <T extends GenericInfo> Flow.Publisher<T> publisher(VisitorType type, Class<T> beanType) {
+		return publisher(type, beanType, Columns.ALL);
+	}
+
+	/**
+	 * @return the publisher of the entries found by an analysis, only computing
+	 *         the given columns. Subscribe before the explorer is started: the
+	 *         entries found before are not replayed.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T extends GenericInfo> Flow.Publisher<T> publisher(VisitorType type, Class<T> beanType,
+			Columns columns) {
+
+		if (started) {
+			throw new IllegalStateException("The analyses must be requested before the explorer is started");
+		}
+		if (!type.beanType.equals(beanType)) {
+			throw new IllegalArgumentException(
+					String.format("%s publishes %s entries", type, type.beanType.getSimpleName()));
+		}
+		if (publishers.containsKey(type)) {
+			return (Flow.Publisher<T>) publishers.get(type);
+		}
+
+		SubmissionPublisher<T> publisher = new SubmissionPublisher<>(executor, bufferSize);
+		publishers.put(type, publisher);
+		processor.addVisitorContext(type, columns, new PublishingStore<>(publisher, beanType));
+		return publisher;
+	}
+
+	/**
+	 * Parse the inputs (directories, archives or corpus packs) in the
+	 * background. The publishers complete once every file is parsed.
+	 *
+	 * @return completed once the inputs are processed, cancel it to skip the
+	 *         files not parsed yet
+	 */
+	public synchronized CompletableFuture<Void> start(List<File> inputs) {
+
+		if (started) {
+			throw new IllegalStateException("The explorer was already started");
+		}
+		started = true;
+
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		done.whenComplete((v, e) -> {
+			if (done.isCancelled()) {
+				processor.cancel();
+				runner.shutdownNow();
+			}
+		});
+
+		runner.execute(() -> {
+			try {
+				process(inputs);
+				if (processor.isCancelled()) {
+					closeAll(new CancellationException("The exploration was cancelled"));
+				} else {
+					publishers.values().forEach(SubmissionPublisher::close);
+				}
+				done.complete(null);
+			} catch (Exception e) {
+				Logger.error(String.format("Error while exploring the inputs. Message: %s", e.getMessage()));
+				closeAll(e);
+				done.completeExceptionally(e);
+			}
+		});
+		runner.shutdown();
+
+		return done;
+	}
+
+	/**
+	 * Wait for the exploration to stop, e.g. after the future returned by
+	 * {@link #start} was cancelled.
+	 *
+	 * @return false if it is still running after the timeout
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return runner.awaitTermination(timeout, unit);
+	}
+
+	private void process(List<File> inputs) throws IOException {
+
+		List<Project> projects = new ArrayList<>();
+		List<File> archives = new ArrayList<>();
+		List<File> packs = new ArrayList<>();
+		for (File input : inputs) {
+			if (CorpusPack.isPack(input)) {
+				packs.add(input);
+			} else if (ArchiveReader.isArchive(input)) {
+				archives.add(input);
+			} else {
+				projects.addAll(
+						ProjectResolver.resolve(FileTraverser.visitAllDirsAndFiles(input, JAVA_EXTENSION), input));
+			}
+		}
+
+		if (!projects.isEmpty()) {
+			processor.processProjects(projects);
+		}
+		if (!archives.isEmpty()) {
+			processor.processArchives(archives);
+		}
+		for (File pack : packs) {
+			processor.processPack(pack);
+		}
+	}
+
+	private void closeAll(Throwable error) {
+		for (SubmissionPublisher<?> publisher : publishers.values()) {
+			publisher.closeExceptionally(error);
+		}
+	}
+
+	/**
+	 * Workers parsing the files (default: number of cores).
+	 */
+	public void setThreads(int threads) {
+		processor.setThreads(threads);
+	}
+
+	/**
+	 * Entries buffered per subscriber before the workers wait for it (default:
+	 * {@link Flow#defaultBufferSize()}). Applies to the publishers requested
+	 * afterwards.
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Executor calling the subscribers (default: the common pool). Applies to
+	 * the publishers requested afterwards.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public void setSolveSymbols(boolean solveSymbols) {
+		processor.setSolveSymbols(solveSymbols);
+	}
+
+	public void setJarFile(File jarFile) {
+		processor.setJarFile(jarFile);
+	}
+
+	private boolean hasSubscribers() {
+		return publishers.values().stream().anyMatch(SubmissionPublisher::hasSubscribers);
+	}
+
+	/**
+	 * Hands the entries of each file to the subscribers instead of keeping
+	 * them.
+	 */
+	private class PublishingStore<T extends GenericInfo> implements ResultStore {
+
+		private final SubmissionPublisher<T> publisher;
+		private final Class<T> beanType;
+		private final AtomicLong published = new AtomicLong();
+		// One worker submits at a time, so the room it waited for is still there
+		private final Object submitting = new Object();
+
+		PublishingStore(SubmissionPublisher<T> publisher, Class<T> beanType) {
+			this.publisher = publisher;
+			this.beanType = beanType;
+		}
+
+		@Override
+		public void addAll(Collection<? extends GenericInfo> entries) {
+			synchronized (submitting) {
+				for (GenericInfo entry : entries) {
+					// Waits while the buffer of a subscriber is full, never past a cancellation
+					while (publisher.estimateMaximumLag() >= publisher.getMaxBufferCapacity()) {
+						if (processor.isCancelled()) {
+							return;
+						}
+						LockSupport.parkNanos(WAIT_NANOS);
+					}
+					if (processor.isCancelled()) {
+						return;
+					}
+					publisher.submit(beanType.cast(entry));
+					published.incrementAndGet();
+				}
+			}
+			if (!processor.isCancelled() && !hasSubscribers()) {
+				Logger.info("No subscriber left, skipping the files not parsed yet");
+				processor.cancel();
+			}
+		}
+
+		@Override
+		public long size() {
+			return published.get();
+		}
+
+		@Override
+		public Iterator<GenericInfo> entries() {
+			throw new UnsupportedOperationException("Published entries are not kept");
+		}
+	}
+
+}
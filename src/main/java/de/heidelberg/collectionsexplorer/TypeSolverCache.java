@@ -0,0 +1,129 @@
+package de.heidelberg.collectionsexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.pmw.tinylog.Logger;
+
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+
+/**
+ * Type solvers kept across the jobs of a long running explorer (see
+ * {@link ServeCommand}), so the sources and jars they index, and the caches
+ * JavaParser keeps per solver, stay warm.
+ *
+ * Solvers are keyed by the project root and the jar they read. A solver is
+ * created again once its jar or a java file of its source tree changed, and
+ * the least recently used solvers are dropped beyond a maximum number.
+ *
+ * @author diego.costa
+ *
+ */
+public class TypeSolverCache {
+
+	static final int DEFAULT_MAX_SOLVERS = 64;
+
+	private static final String JAVA_EXTENSION = ".java";
+
+	private static class Cached {
+		final String fingerprint;
+		final TypeSolver solver;
+
+		Cached(String fingerprint, TypeSolver solver) {
+			this.fingerprint = fingerprint;
+			this.solver = solver;
+		}
+	}
+
+	private final Map<String, Cached> solvers;
+
+	public TypeSolverCache() {
+		this(DEFAULT_MAX_SOLVERS);
+	}
+
+	public TypeSolverCache(int maxSolvers) {
+		// In access order, so the eldest entry is the least recently used
+		this.solvers = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+				return size() > maxSolvers;
+			}
+		};
+	}
+
+	/**
+	 * @return the solver of the project root and jar, created the first time
+	 *         and again once the sources or the jar changed
+	 */
+	public TypeSolver get(File root, File jar, Supplier<TypeSolver> create) {
+
+		String key = keyOf(root, jar);
+		String fingerprint = fingerprintOf(root, jar);
+
+		synchronized (solvers) {
+			Cached cached = solvers.get(key);
+			if (cached != null && cached.fingerprint.equals(fingerprint)) {
+				return cached.solver;
+			}
+			if (cached != null) {
+				Logger.info(String.format("Sources of %s changed, creating its type solver again", key));
+			}
+		}
+
+		// Created outside of the lock, reading a jar takes a while
+		TypeSolver solver = create.get();
+		synchronized (solvers) {
+			solvers.put(key, new Cached(fingerprint, solver));
+		}
+		return solver;
+	}
+
+	public int size() {
+		synchronized (solvers) {
+			return solvers.size();
+		}
+	}
+
+	private static String keyOf(File root, File jar) {
+		String key = root == null ? "" : root.getAbsolutePath();
+		if (jar != null) {
+			key += File.pathSeparator + jar.getAbsolutePath();
+		}
+		return key;
+	}
+
+	/**
+	 * @return the newest modification and the number of the java files of the
+	 *         source tree (a deleted file changes the count), and the
+	 *         modification and size of the jar
+	 */
+	static String fingerprintOf(File root, File jar) {
+
+		String fingerprint = "";
+		if (root != null && root.isDirectory()) {
+			try (Stream<Path> files = Files.walk(root.toPath())) {
+				LongSummaryStatistics sources = files.filter(f -> f.toString().endsWith(JAVA_EXTENSION))
+						.mapToLong(f -> f.toFile().lastModified()).summaryStatistics();
+				fingerprint = sources.getMax() + ":" + sources.getCount();
+			} catch (IOException | UncheckedIOException e) {
+				Logger.warn(String.format("Could not check the sources of %s for changes. Message: %s", root,
+						e.getMessage()));
+			}
+		}
+		if (jar != null) {
+			fingerprint += "@" + jar.lastModified() + ":" + jar.length();
+		}
+		return fingerprint;
+	}
+
+}
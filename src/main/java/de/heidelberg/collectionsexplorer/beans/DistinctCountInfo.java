@@ -0,0 +1,25 @@
+package de.heidelberg.collectionsexplorer.beans;
+
+import com.opencsv.bean.CsvBindByName;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bean that stores the estimated number of distinct values of a sketched
+ * dimension.
+ * 
+ * @author diego.costa
+ *
+ */
+@Builder
+@ToString
+public class DistinctCountInfo {
+
+	@Getter @CsvBindByName private String dimension;
+	@Getter @CsvBindByName private long estimatedDistinct;
+	@Getter @CsvBindByName private double relativeError;
+	@Getter @CsvBindByName private long total;
+
+}
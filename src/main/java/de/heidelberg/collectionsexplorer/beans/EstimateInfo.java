@@ -0,0 +1,33 @@
+package de.heidelberg.collectionsexplorer.beans;
+
+import com.opencsv.bean.CsvBindByName;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bean that stores the corpus estimate of the entries of one type, computed
+ * from a sample of the files.
+ * 
+ * @author diego.costa
+ *
+ */
+@Builder
+@ToString
+public class EstimateInfo {
+
+	@Getter @CsvBindByName private String visitorType;
+	@Getter @CsvBindByName private String type;
+	@Getter @CsvBindByName private int sampledFiles;
+	@Getter @CsvBindByName private int totalFiles;
+	@Getter @CsvBindByName private int sampledCount;
+	@Getter @CsvBindByName private double estimatedCount;
+	@Getter @CsvBindByName private double estimatedCountLow;
+	@Getter @CsvBindByName private double estimatedCountHigh;
+	// Share of all the entries of the visitor
+	@Getter @CsvBindByName private double proportion;
+	@Getter @CsvBindByName private double proportionLow;
+	@Getter @CsvBindByName private double proportionHigh;
+
+}
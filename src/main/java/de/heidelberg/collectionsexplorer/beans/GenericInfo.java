@@ -1,13 +1,31 @@
 package de.heidelberg.collectionsexplorer.beans;
 
+import java.io.Serializable;
+
 import com.opencsv.bean.CsvBindByName;
 
 import lombok.Getter;
 import lombok.Setter;
 
-public class GenericInfo {
+public class GenericInfo implements Cloneable, Serializable {
+	
+	private static final long serialVersionUID = 1L;
 	
 	@Getter @Setter @CsvBindByName
 	private String path; // Added later
+	
+	@Getter @Setter @CsvBindByName
+	private String project;
+	
+	/**
+	 * Shallow copy of the bean, used to report the same entry for another path.
+	 */
+	public GenericInfo copy() {
+		try {
+			return (GenericInfo) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
 
 }
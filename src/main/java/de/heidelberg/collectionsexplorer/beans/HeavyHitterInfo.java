@@ -0,0 +1,27 @@
+package de.heidelberg.collectionsexplorer.beans;
+
+import com.opencsv.bean.CsvBindByName;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bean that stores one of the most frequent values of a sketched dimension.
+ * 
+ * @author diego.costa
+ *
+ */
+@Builder
+@ToString
+public class HeavyHitterInfo {
+
+	@Getter @CsvBindByName private String dimension;
+	@Getter @CsvBindByName private int rank;
+	@Getter @CsvBindByName private String value;
+	@Getter @CsvBindByName private long estimatedCount;
+	// The real count is in [estimatedCount - errorBound, estimatedCount] with 99% probability
+	@Getter @CsvBindByName private long errorBound;
+	@Getter @CsvBindByName private long total;
+
+}
@@ -14,10 +14,12 @@ import lombok.ToString;
  */
 @Builder
 @ToString
-public class ObjectCreationInfo extends GenericInfo{
+public class ObjectCreationInfo extends GenericInfo implements Positioned {
 
 	@Getter	@CsvBindByName private String objectType;
 	@Getter	@CsvBindByName private String className;
+	@Getter	@CsvBindByName private String qualifiedClassName;
+	@Getter	@CsvBindByName private String methodName;
 	@Getter	@CsvBindByName private int lineNumber;
 	@Getter	@CsvBindByName private int columnNumber;
 	@Getter @CsvBindByName private String fullObjectType;
@@ -0,0 +1,26 @@
+package de.heidelberg.collectionsexplorer.beans;
+
+import com.opencsv.bean.CsvBindByName;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bean that stores one file written by a run, as listed in the manifest.
+ * 
+ * @author diego.costa
+ *
+ */
+@Builder
+@ToString
+public class OutputFileInfo {
+
+	// The analysis or table the file belongs to, e.g. OBJECT_CREATION
+	@Getter @CsvBindByName private String report;
+	@Getter @CsvBindByName private int part;
+	@Getter @CsvBindByName private String file;
+	@Getter @CsvBindByName private long rows;
+	@Getter @CsvBindByName private long bytes;
+
+}
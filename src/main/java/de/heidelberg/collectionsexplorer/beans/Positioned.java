@@ -0,0 +1,15 @@
+package de.heidelberg.collectionsexplorer.beans;
+
+/**
+ * Bean of an entry found at a given position of the file.
+ * 
+ * @author diego.costa
+ *
+ */
+public interface Positioned {
+
+	int getLineNumber();
+
+	int getColumnNumber();
+
+}
@@ -8,10 +8,12 @@ import lombok.ToString;
 
 @Builder
 @ToString
-public class StreamOperationsInfo extends GenericInfo {
+public class StreamOperationsInfo extends GenericInfo implements Positioned {
 	
 	@Getter	@CsvBindByName private String className;
 	@Getter	@CsvBindByName private String packageName;
+	@Getter	@CsvBindByName private String qualifiedClassName;
+	@Getter	@CsvBindByName private String methodName;
 	
 	@Getter	@CsvBindByName private int lineNumber;
 	@Getter	@CsvBindByName private int columnNumber;
@@ -1,5 +1,6 @@
 package de.heidelberg.collectionsexplorer.beans;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -12,7 +13,9 @@ import lombok.Getter;
  * @author diego.costa
  *
  */
-public class StringListInfo {
+public class StringListInfo implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
 	
 	@Getter final List<String> listedInfo;
 	
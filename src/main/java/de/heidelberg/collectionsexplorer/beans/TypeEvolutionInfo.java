@@ -0,0 +1,28 @@
+package de.heidelberg.collectionsexplorer.beans;
+
+import com.opencsv.bean.CsvBindByName;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bean that stores how the entries of one type changed in a commit.
+ * 
+ * @author diego.costa
+ *
+ */
+@Builder
+@ToString
+public class TypeEvolutionInfo extends GenericInfo {
+
+	@Getter @CsvBindByName private String commit;
+	@Getter @CsvBindByName private String commitTime;
+	@Getter @CsvBindByName private String visitorType;
+	@Getter @CsvBindByName private String type;
+	@Getter @CsvBindByName private int added;
+	@Getter @CsvBindByName private int removed;
+	// Sum of added - removed since the start of the mined range
+	@Getter @CsvBindByName private int netChange;
+
+}
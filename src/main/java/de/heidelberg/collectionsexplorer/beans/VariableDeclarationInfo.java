@@ -8,11 +8,13 @@ import lombok.ToString;
 
 @Builder
 @ToString
-public class VariableDeclarationInfo extends GenericInfo {
+public class VariableDeclarationInfo extends GenericInfo implements Positioned {
 	
 	@Getter @CsvBindByName String type;
 	@Getter @CsvBindByName String name;
 	@Getter @CsvBindByName String className;
+	@Getter @CsvBindByName String qualifiedClassName;
+	@Getter @CsvBindByName String methodName;
 	@Getter @CsvBindByName StringListInfo typeArguments;
 	@Getter	@CsvBindByName private int lineNumber;
 	@Getter	@CsvBindByName private int columnNumber;
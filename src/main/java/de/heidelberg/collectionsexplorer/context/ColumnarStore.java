@@ -0,0 +1,289 @@
+package de.heidelberg.collectionsexplorer.context;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.opencsv.bean.CsvBindByName;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.StringListInfo;
+
+/**
+ * ColumnarStore keeps the entries of a report as primitive columns instead of
+ * one bean per entry: <code>int</code> fields in <code>int</code> arrays,
+ * strings as ids of a dictionary shared by all the columns, and list fields as
+ * packed offsets into a single array of string ids.
+ * 
+ * The columns are the {@link CsvBindByName} fields of the bean type, found
+ * from the first entry added. Beans are rebuilt one at a time (through their
+ * Lombok builder) when the entries are read, so the export is unchanged.
+ * 
+ * @author diego.costa
+ *
+ */
+public class ColumnarStore implements ResultStore {
+
+	private static final int NULL = -1;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private Class<?> beanType;
+	private Method builder;
+	private Method build;
+	private List<Column> columns;
+	private int size = 0;
+
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final List<String> dictionary = new ArrayList<>();
+	private IntColumn listValues = new IntColumn();
+
+	/**
+	 * Growable <code>int</code> array.
+	 */
+	private static class IntColumn {
+
+		int[] data = new int[INITIAL_CAPACITY];
+		int size = 0;
+
+		void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, data.length + (data.length >> 1));
+			}
+			data[size++] = value;
+		}
+
+		int get(int index) {
+			return data[index];
+		}
+	}
+
+	/**
+	 * A bean field and its values.
+	 */
+	private abstract class Column {
+
+		final Field field;
+		// Set through the builder, or on the built bean for the GenericInfo fields
+		final Method setter;
+		final IntColumn values = new IntColumn();
+
+		Column(Field field, Method setter) {
+			this.field = field;
+			this.setter = setter;
+		}
+
+		abstract void add(Object value);
+
+		abstract Object get(int row);
+	}
+
+	private class IntFieldColumn extends Column {
+
+		IntFieldColumn(Field field, Method setter) {
+			super(field, setter);
+		}
+
+		@Override
+		void add(Object value) {
+			values.add((Integer) value);
+		}
+
+		@Override
+		Object get(int row) {
+			return values.get(row);
+		}
+	}
+
+	private class StringColumn extends Column {
+
+		StringColumn(Field field, Method setter) {
+			super(field, setter);
+		}
+
+		@Override
+		void add(Object value) {
+			values.add(idOf((String) value));
+		}
+
+		@Override
+		Object get(int row) {
+			int id = values.get(row);
+			return id == NULL ? null : dictionary.get(id);
+		}
+	}
+
+	private class StringListColumn extends Column {
+
+		// The values hold the start of each list in listValues
+		final IntColumn lengths = new IntColumn();
+
+		StringListColumn(Field field, Method setter) {
+			super(field, setter);
+		}
+
+		@Override
+		void add(Object value) {
+			if (value == null) {
+				values.add(NULL);
+				lengths.add(0);
+				return;
+			}
+			List<String> list = ((StringListInfo) value).getListedInfo();
+			values.add(listValues.size);
+			lengths.add(list.size());
+			for (String str : list) {
+				listValues.add(idOf(str));
+			}
+		}
+
+		@Override
+		Object get(int row) {
+			int start = values.get(row);
+			if (start == NULL) {
+				return null;
+			}
+			int length = lengths.get(row);
+			List<String> list = new ArrayList<>(length);
+			for (int i = start; i < start + length; i++) {
+				list.add(dictionary.get(listValues.get(i)));
+			}
+			return new StringListInfo(list);
+		}
+	}
+
+	@Override
+	public synchronized void addAll(Collection<? extends GenericInfo> entries) {
+		for (GenericInfo entry : entries) {
+			if (columns == null) {
+				createColumns(entry.getClass());
+			}
+			for (Column column : columns) {
+				try {
+					column.add(column.field.get(entry));
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			size++;
+		}
+	}
+
+	@Override
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of distinct strings of the dictionary
+	 */
+	public synchronized int getDictionarySize() {
+		return dictionary.size();
+	}
+
+	@Override
+	public synchronized Iterator<GenericInfo> entries() {
+
+		int rows = size;
+		return new Iterator<GenericInfo>() {
+
+			int row = 0;
+
+			@Override
+			public boolean hasNext() {
+				return row < rows;
+			}
+
+			@Override
+			public GenericInfo next() {
+				if (row >= rows) {
+					throw new NoSuchElementException();
+				}
+				return rebuild(row++);
+			}
+		};
+	}
+
+	private synchronized GenericInfo rebuild(int row) {
+		try {
+			Object beanBuilder = builder.invoke(null);
+			for (Column column : columns) {
+				if (column.setter.getDeclaringClass() == beanBuilder.getClass()) {
+					column.setter.invoke(beanBuilder, column.get(row));
+				}
+			}
+
+			GenericInfo bean = (GenericInfo) build.invoke(beanBuilder);
+			for (Column column : columns) {
+				if (column.setter.getDeclaringClass() != beanBuilder.getClass()) {
+					column.setter.invoke(bean, column.get(row));
+				}
+			}
+			return bean;
+
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException(String.format("Could not rebuild a %s", beanType.getSimpleName()), e);
+		}
+	}
+
+	private int idOf(String value) {
+		if (value == null) {
+			return NULL;
+		}
+		Integer id = ids.get(value);
+		if (id == null) {
+			id = dictionary.size();
+			ids.put(value, id);
+			dictionary.add(value);
+		}
+		return id;
+	}
+
+	private void createColumns(Class<?> type) {
+		try {
+			beanType = type;
+			builder = type.getMethod("builder");
+			Class<?> builderType = builder.getReturnType();
+			build = builderType.getMethod("build");
+
+			columns = new ArrayList<>();
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers()) || !field.isAnnotationPresent(CsvBindByName.class)) {
+						continue;
+					}
+					field.setAccessible(true);
+					Method setter = c == type ? builderType.getMethod(field.getName(), field.getType())
+							: c.getMethod("set" + Character.toUpperCase(field.getName().charAt(0))
+									+ field.getName().substring(1), field.getType());
+					columns.add(createColumn(field, setter));
+				}
+			}
+
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(
+					String.format("%s cannot be stored in columns: %s", type.getSimpleName(), e.getMessage()), e);
+		}
+	}
+
+	private Column createColumn(Field field, Method setter) {
+		if (field.getType() == int.class) {
+			return new IntFieldColumn(field, setter);
+		} else if (field.getType() == String.class) {
+			return new StringColumn(field, setter);
+		} else if (field.getType() == StringListInfo.class) {
+			return new StringListColumn(field, setter);
+		}
+		throw new IllegalStateException(String.format("Unsupported column type %s of %s", field.getType(),
+				field.getName()));
+	}
+
+}
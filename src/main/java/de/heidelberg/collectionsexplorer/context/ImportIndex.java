@@ -0,0 +1,165 @@
+package de.heidelberg.collectionsexplorer.context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.TypeParameter;
+
+import de.heidelberg.collectionsexplorer.util.KnownTypes;
+
+/**
+ * Index of the imports and types declared in a {@link CompilationUnit}, used to
+ * qualify type names without the symbol solver. The index is computed once per
+ * file and stored in the {@link CompilationUnit}, so all the visitors share it.
+ * 
+ * Type parameters declared in the file (e.g. <code>T</code>) are never
+ * qualified. Other names are qualified, in this order, by the types declared in
+ * the file, the single-type imports, <code>java.lang</code>, the on-demand
+ * imports (checked against the {@link KnownTypes} table) and finally the
+ * package of the file.
+ * The package is only assumed when no on-demand import of an unknown package
+ * could have declared the type.
+ * 
+ * @author diego.costa
+ *
+ */
+public class ImportIndex {
+
+	public static final ImportIndex EMPTY = new ImportIndex("");
+
+	private static final DataKey<ImportIndex> KEY = new DataKey<ImportIndex>() {
+	};
+
+	private static final String JAVA_LANG = "java.lang";
+
+	private final String packageName;
+	private final Map<String, String> declaredTypes = new HashMap<>();
+	private final Set<String> typeParameters = new HashSet<>();
+	private final Map<String, String> singleImports = new HashMap<>();
+	private final List<String> onDemandImports = new ArrayList<>();
+	private boolean unknownOnDemandImport = false;
+
+	private ImportIndex(String packageName) {
+		this.packageName = packageName;
+	}
+
+	/**
+	 * @return the index of the {@link CompilationUnit}, computing it on the first
+	 *         call
+	 */
+	public static ImportIndex of(CompilationUnit cu) {
+
+		if (cu.containsData(KEY)) {
+			return cu.getData(KEY);
+		}
+
+		ImportIndex index = new ImportIndex(cu.getPackageDeclaration().map(p -> p.getNameAsString()).orElse(""));
+
+		for (ImportDeclaration imp : cu.getImports()) {
+			if (imp.isStatic()) {
+				continue;
+			}
+			String name = imp.getNameAsString();
+			if (imp.isAsterisk()) {
+				index.onDemandImports.add(name);
+				index.unknownOnDemandImport |= !KnownTypes.isKnownPackage(name);
+			} else {
+				index.singleImports.put(imp.getName().getIdentifier(), name);
+			}
+		}
+
+		cu.walk(node -> {
+			if (node instanceof TypeDeclaration) {
+				TypeDeclaration<?> type = (TypeDeclaration<?>) node;
+				Optional<String> qualifiedName = type.getFullyQualifiedName();
+				if (qualifiedName.isPresent()) {
+					index.declaredTypes.putIfAbsent(type.getNameAsString(), qualifiedName.get());
+				}
+			} else if (node instanceof TypeParameter) {
+				index.typeParameters.add(((TypeParameter) node).getNameAsString());
+			}
+		});
+
+		cu.setData(KEY, index);
+		return index;
+	}
+
+	/**
+	 * Qualify a type name as written in the code, e.g. <code>HashMap</code> or
+	 * <code>Map.Entry</code>.
+	 * 
+	 * @return the qualified name or the name itself if it cannot be qualified
+	 */
+	public String qualify(String name) {
+
+		int dot = name.indexOf('.');
+		String first = dot < 0 ? name : name.substring(0, dot);
+
+		String qualified = qualifySimpleName(first);
+		if (qualified == null) {
+			return name;
+		}
+
+		return dot < 0 ? qualified : qualified + name.substring(dot);
+	}
+
+	/**
+	 * @return the qualified name or <code>null</code> if it cannot be qualified
+	 */
+	public String qualifySimpleName(String simpleName) {
+
+		if (typeParameters.contains(simpleName)) {
+			return null;
+		}
+
+		String qualified = declaredTypes.get(simpleName);
+		if (qualified != null) {
+			return qualified;
+		}
+
+		qualified = singleImports.get(simpleName);
+		if (qualified != null) {
+			return qualified;
+		}
+
+		if (KnownTypes.contains(JAVA_LANG, simpleName)) {
+			return JAVA_LANG + "." + simpleName;
+		}
+
+		for (String onDemand : onDemandImports) {
+			if (KnownTypes.contains(onDemand, simpleName)) {
+				return onDemand + "." + simpleName;
+			}
+		}
+
+		// Lower case names are packages of already qualified names
+		if (unknownOnDemandImport || simpleName.isEmpty() || !Character.isUpperCase(simpleName.charAt(0))) {
+			return null;
+		}
+
+		return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+	}
+
+	public String getPackageName() {
+		return packageName;
+	}
+
+	public Map<String, String> getSingleImports() {
+		return Collections.unmodifiableMap(singleImports);
+	}
+
+	public List<String> getOnDemandImports() {
+		return Collections.unmodifiableList(onDemandImports);
+	}
+
+}
@@ -1,25 +1,94 @@
 package de.heidelberg.collectionsexplorer.context;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+
 /**
  * Report compiles a report from a list of results, mainly
  * through the use of a toString() implementation.
  * 
+ * A report can hand its entries to a {@link ResultStore} (sorted, columnar)
+ * instead of keeping the results of each file in memory.
+ * 
  * @author Janos Sebök
  *
  */
 public class Report {
 	
-	private List<Result<?>> report = new ArrayList<Result<?>>();
+	// Results are added concurrently by the workers of the FileProcessor
+	private List<Result<?>> report = Collections.synchronizedList(new ArrayList<Result<?>>());
+	private ResultStore store;
+	
+	public Report() {
+		this(null);
+	}
+	
+	public Report(ResultStore store) {
+		this.store = store;
+	}
 	
 	public void add(Result<?> r) {
-		report.add(r);
+		if (store != null) {
+			store.addAll(r.getEntries());
+		} else {
+			report.add(r);
+		}
 	}
 	
+	/**
+	 * @return the results of each file, always empty when a store is used
+	 */
 	public List<Result<?>> getResults() {
 		return report;
 	}
 	
+	/**
+	 * Replace the result of a file, e.g. once it changed on disk.
+	 */
+	public void replace(String path, Result<?> r) {
+		synchronized (report) {
+			retract(path);
+			report.add(r);
+		}
+	}
+	
+	/**
+	 * Remove the results of a deleted file, or of all the files of a deleted
+	 * folder.
+	 * 
+	 * @return the number of results removed
+	 */
+	public int retract(String path) {
+		if (store != null) {
+			throw new UnsupportedOperationException("The entries of a store cannot be retracted");
+		}
+		String folder = path + File.separator;
+		synchronized (report) {
+			int before = report.size();
+			report.removeIf(r -> r.getFilePath().equals(path) || r.getFilePath().startsWith(folder));
+			return before - report.size();
+		}
+	}
+	
+	public boolean hasStore() {
+		return store != null;
+	}
+	
+	/**
+	 * @return the entries kept by the store of the report
+	 */
+	public Iterator<GenericInfo> getStoredEntries() throws IOException {
+		return store.entries();
+	}
+	
+	public ResultStore getStore() {
+		return store;
+	}
+	
 }
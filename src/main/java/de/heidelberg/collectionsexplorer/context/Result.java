@@ -14,15 +14,22 @@ import de.heidelberg.collectionsexplorer.beans.GenericInfo;
 public class Result<T extends GenericInfo> {
 	
 	private String fileAbsolutePath;
+	private String project;
 	private List<T> infoList = new ArrayList<T>();
 	
 	public Result(String fileName) {
+		this(fileName, null);
+	}
+	
+	public Result(String fileName, String project) {
 		this.fileAbsolutePath = fileName;
+		this.project = project;
 	}
 	
 	public void add(T bean) {
-		// First add the path
+		// First add the path and the project
 		bean.setPath(fileAbsolutePath);
+		bean.setProject(project);
 		infoList.add(bean);
 	}
 	
@@ -32,6 +39,18 @@ public class Result<T extends GenericInfo> {
 		else return true;
 	}
 	
+	/**
+	 * Copy all the entries of this result to a file with the same content.
+	 */
+	@SuppressWarnings("unchecked")
+	public Result<T> copy(String fileName, String project) {
+		Result<T> copy = new Result<>(fileName, project);
+		for (T bean : infoList) {
+			copy.add((T) bean.copy());
+		}
+		return copy;
+	}
+	
 	public List<T> getEntries() {
 		return infoList;
 	}
@@ -39,4 +58,8 @@ public class Result<T extends GenericInfo> {
 	public String getFilePath() {
 		return fileAbsolutePath;
 	}
+	
+	public String getProject() {
+		return project;
+	}
 }
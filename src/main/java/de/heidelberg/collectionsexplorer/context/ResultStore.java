@@ -0,0 +1,33 @@
+package de.heidelberg.collectionsexplorer.context;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+
+/**
+ * Storage for the entries of a {@link Report} other than keeping the results
+ * of each file in memory.
+ * 
+ * @author diego.costa
+ *
+ */
+public interface ResultStore {
+
+	/**
+	 * Add the entries of a file. Called concurrently by the workers.
+	 */
+	void addAll(Collection<? extends GenericInfo> entries);
+
+	/**
+	 * @return the number of entries stored
+	 */
+	long size();
+
+	/**
+	 * @return all the entries, in the order defined by the store
+	 */
+	Iterator<GenericInfo> entries() throws IOException;
+
+}
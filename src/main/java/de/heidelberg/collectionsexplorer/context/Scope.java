@@ -0,0 +1,152 @@
+package de.heidelberg.collectionsexplorer.context;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * Enclosing scope (package, class and method) of the node being visited. The
+ * scope is maintained as a stack while the {@link CompilationUnit} is
+ * traversed, so the enclosing class of a node is known without walking up its
+ * ancestors.
+ * 
+ * Qualified class names follow the binary name convention, e.g.
+ * <code>pkg.Outer$Inner</code> for nested classes, <code>pkg.Outer$1</code> for
+ * anonymous classes and <code>pkg.Outer$1Local</code> for local classes.
+ * 
+ * @author diego.costa
+ *
+ */
+public class Scope {
+
+	private static final String NO_INFO = "";
+
+	private static final String CONSTRUCTOR = "<init>";
+	private static final String STATIC_INITIALIZER = "<clinit>";
+
+	private String packageName = NO_INFO;
+	private Deque<Frame> frames = new ArrayDeque<>();
+
+	/**
+	 * A frame caches everything derived from its enclosing frames, so every
+	 * lookup is a peek on the stack.
+	 */
+	private static class Frame {
+
+		final String className;
+		final String qualifiedClassName;
+		final String methodName;
+		// The type frame numbering the anonymous and local classes declared in this frame
+		final Frame owner;
+
+		int anonymousClasses = 0;
+		// Local classes are numbered per simple name, as javac does
+		final Map<String, Integer> localClasses = new HashMap<>();
+
+		Frame(String className, String qualifiedClassName, String methodName, Frame owner) {
+			this.className = className;
+			this.qualifiedClassName = qualifiedClassName;
+			this.methodName = methodName;
+			this.owner = owner == null ? this : owner;
+		}
+	}
+
+	public void setPackageName(String packageName) {
+		this.packageName = packageName;
+	}
+
+	/**
+	 * Enter a top-level or member type declaration.
+	 */
+	public void enterType(String simpleName) {
+		Frame top = frames.peek();
+		String qualified;
+		if (top == null) {
+			qualified = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		} else {
+			qualified = top.qualifiedClassName + "$" + simpleName;
+		}
+		frames.push(new Frame(simpleName, qualified, NO_INFO, null));
+	}
+
+	/**
+	 * Enter a class declared inside a method body.
+	 */
+	public void enterLocalType(String simpleName) {
+		Frame top = frames.peek();
+		if (top == null) {
+			enterType(simpleName);
+			return;
+		}
+		int index = top.owner.localClasses.merge(simpleName, 1, Integer::sum);
+		frames.push(new Frame(simpleName, top.qualifiedClassName + "$" + index + simpleName, NO_INFO, null));
+	}
+
+	/**
+	 * Enter the body of an anonymous class. The class name reported inside an
+	 * anonymous class remains the name of its enclosing declared class.
+	 */
+	public void enterAnonymousType() {
+		Frame top = frames.peek();
+		if (top == null) {
+			enterType(NO_INFO);
+			return;
+		}
+		int index = ++top.owner.anonymousClasses;
+		frames.push(new Frame(top.className, top.qualifiedClassName + "$" + index, NO_INFO, null));
+	}
+
+	public void enterMethod(String methodName) {
+		Frame top = frames.peek();
+		if (top == null) {
+			frames.push(new Frame(NO_INFO, NO_INFO, methodName, null));
+			return;
+		}
+		frames.push(new Frame(top.className, top.qualifiedClassName, methodName, top.owner));
+	}
+
+	public void enterConstructor() {
+		enterMethod(CONSTRUCTOR);
+	}
+
+	public void enterInitializer(boolean isStatic) {
+		enterMethod(isStatic ? STATIC_INITIALIZER : CONSTRUCTOR);
+	}
+
+	public void exit() {
+		frames.pop();
+	}
+
+	public String getPackageName() {
+		return packageName;
+	}
+
+	/**
+	 * @return the simple name of the innermost declared class
+	 */
+	public String getClassName() {
+		Frame top = frames.peek();
+		return top == null ? NO_INFO : top.className;
+	}
+
+	/**
+	 * @return the binary name of the innermost class (including anonymous ones)
+	 */
+	public String getQualifiedClassName() {
+		Frame top = frames.peek();
+		return top == null ? NO_INFO : top.qualifiedClassName;
+	}
+
+	/**
+	 * @return the name of the enclosing method, <code>&lt;init&gt;</code> for
+	 *         constructors or an empty String outside of methods
+	 */
+	public String getMethodName() {
+		Frame top = frames.peek();
+		return top == null ? NO_INFO : top.methodName;
+	}
+
+}
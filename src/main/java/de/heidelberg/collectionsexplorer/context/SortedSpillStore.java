@@ -0,0 +1,233 @@
+package de.heidelberg.collectionsexplorer.context;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.pmw.tinylog.Logger;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.Positioned;
+
+/**
+ * SortedSpillStore keeps the entries of a report sorted by (path, line,
+ * column) without holding all of them in memory. Entries are buffered up to a
+ * threshold; full buffers are sorted and spilled to a temporary file (a sorted
+ * run) and all the runs are k-way merged when the entries are read back.
+ * 
+ * @author diego.costa
+ *
+ */
+public class SortedSpillStore implements ResultStore {
+
+	public static final Comparator<GenericInfo> BY_POSITION = Comparator
+			.comparing(GenericInfo::getPath, Comparator.nullsFirst(Comparator.naturalOrder()))
+			.thenComparingInt(SortedSpillStore::lineOf).thenComparingInt(SortedSpillStore::columnOf);
+
+	// Entries written before the stream forgets the objects it already wrote
+	private static final int RESET_INTERVAL = 1000;
+
+	private final int maxInMemory;
+	private List<GenericInfo> buffer = new ArrayList<>();
+	private final List<Run> runs = Collections.synchronizedList(new ArrayList<>());
+	private long size = 0;
+
+	/**
+	 * A sorted run spilled to disk.
+	 */
+	private static class Run {
+
+		final File file;
+		final int size;
+
+		Run(File file, int size) {
+			this.file = file;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Reads a run back, one entry at a time.
+	 */
+	private static class RunReader {
+
+		final ObjectInputStream in;
+		int remaining;
+		GenericInfo current;
+
+		RunReader(Run run) throws IOException {
+			this.in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(run.file)));
+			this.remaining = run.size;
+		}
+
+		boolean advance() throws IOException {
+			if (remaining == 0) {
+				in.close();
+				return false;
+			}
+			try {
+				current = (GenericInfo) in.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException(e);
+			}
+			remaining--;
+			return true;
+		}
+	}
+
+	/**
+	 * @param maxInMemory
+	 *            number of entries kept in memory before a sorted run is spilled
+	 */
+	public SortedSpillStore(int maxInMemory) {
+		this.maxInMemory = maxInMemory;
+	}
+
+	@Override
+	public void addAll(Collection<? extends GenericInfo> entries) {
+
+		List<GenericInfo> full = null;
+		synchronized (this) {
+			buffer.addAll(entries);
+			size += entries.size();
+			if (buffer.size() >= maxInMemory) {
+				full = buffer;
+				buffer = new ArrayList<>();
+			}
+		}
+
+		// Sorted and written outside the lock, so the workers keep adding entries
+		if (full != null) {
+			spill(full);
+		}
+	}
+
+	private void spill(List<GenericInfo> entries) {
+
+		entries.sort(BY_POSITION);
+		try {
+			File file = File.createTempFile("collections-explorer-", ".run");
+			file.deleteOnExit();
+
+			try (ObjectOutputStream out = new ObjectOutputStream(
+					new BufferedOutputStream(new FileOutputStream(file)))) {
+				int written = 0;
+				for (GenericInfo entry : entries) {
+					out.writeObject(entry);
+					if (++written % RESET_INTERVAL == 0) {
+						out.reset();
+					}
+				}
+			}
+
+			runs.add(new Run(file, entries.size()));
+			Logger.debug(String.format("%d entries spilled to %s", entries.size(), file));
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error while spilling the entries to disk", e);
+		}
+	}
+
+	/**
+	 * @return the number of entries stored
+	 */
+	@Override
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of sorted runs spilled to disk
+	 */
+	public int getRuns() {
+		return runs.size();
+	}
+
+	/**
+	 * Read all the entries sorted by (path, line, column). The temporary files
+	 * are deleted once all the entries are read, so the entries can only be read
+	 * once.
+	 */
+	@Override
+	public synchronized Iterator<GenericInfo> entries() throws IOException {
+
+		if (runs.isEmpty()) {
+			buffer.sort(BY_POSITION);
+			return buffer.iterator();
+		}
+
+		if (!buffer.isEmpty()) {
+			spill(buffer);
+			buffer = new ArrayList<>();
+		}
+		Logger.info(String.format("Merging %d sorted runs of %d entries", runs.size(), size));
+
+		PriorityQueue<RunReader> heads = new PriorityQueue<>(
+				Comparator.comparing((RunReader reader) -> reader.current, BY_POSITION));
+		for (Run run : runs) {
+			RunReader reader = new RunReader(run);
+			if (reader.advance()) {
+				heads.add(reader);
+			}
+		}
+
+		return new Iterator<GenericInfo>() {
+
+			@Override
+			public boolean hasNext() {
+				if (heads.isEmpty()) {
+					deleteRuns();
+					return false;
+				}
+				return true;
+			}
+
+			@Override
+			public GenericInfo next() {
+				RunReader reader = heads.poll();
+				if (reader == null) {
+					throw new NoSuchElementException();
+				}
+				GenericInfo entry = reader.current;
+				try {
+					if (reader.advance()) {
+						heads.add(reader);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException("Error while reading a sorted run", e);
+				}
+				return entry;
+			}
+		};
+	}
+
+	private void deleteRuns() {
+		for (Run run : runs) {
+			run.file.delete();
+		}
+		runs.clear();
+	}
+
+	private static int lineOf(GenericInfo entry) {
+		return entry instanceof Positioned ? ((Positioned) entry).getLineNumber() : 0;
+	}
+
+	private static int columnOf(GenericInfo entry) {
+		return entry instanceof Positioned ? ((Positioned) entry).getColumnNumber() : 0;
+	}
+
+}
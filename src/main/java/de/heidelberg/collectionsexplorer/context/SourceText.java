@@ -0,0 +1,102 @@
+package de.heidelberg.collectionsexplorer.context;
+
+import com.github.javaparser.Position;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+
+/**
+ * The original source of a {@link CompilationUnit}, stored in it while its
+ * visitors run. The text of a node is sliced from the source by the node
+ * {@link Range} instead of being pretty-printed, which is much cheaper and
+ * keeps the formatting of the author.
+ * 
+ * @author diego.costa
+ *
+ */
+public class SourceText {
+
+	/**
+	 * Used when the source is not known; falls back to the pretty printer.
+	 */
+	public static final SourceText EMPTY = new SourceText(null);
+
+	private static final DataKey<SourceText> KEY = new DataKey<SourceText>() {
+	};
+
+	private final String source;
+
+	// Offset of the first character of each line, computed on the first slice
+	private int[] lineStarts;
+
+	private SourceText(String source) {
+		this.source = source;
+	}
+
+	/**
+	 * Keep the source the {@link CompilationUnit} was parsed from.
+	 */
+	public static void attach(CompilationUnit cu, String source) {
+		cu.setData(KEY, new SourceText(source));
+	}
+
+	/**
+	 * @return the source attached to the {@link CompilationUnit}, or
+	 *         {@link #EMPTY}
+	 */
+	public static SourceText of(CompilationUnit cu) {
+		return cu.containsData(KEY) ? cu.getData(KEY) : EMPTY;
+	}
+
+	/**
+	 * @return the text of the node as written in the source, or its
+	 *         pretty-printed form if the source or the range of the node is not
+	 *         known
+	 */
+	public String textOf(Node node) {
+		if (source == null || !node.getRange().isPresent()) {
+			return node.toString();
+		}
+
+		Range range = node.getRange().get();
+		int begin = offsetOf(range.begin);
+		// The end position is inclusive
+		int end = offsetOf(range.end) + 1;
+		if (begin < 0 || end <= begin || end > source.length()) {
+			return node.toString();
+		}
+		return source.substring(begin, end);
+	}
+
+	private int offsetOf(Position position) {
+		if (lineStarts == null) {
+			lineStarts = lineStarts(source);
+		}
+		if (position.line < 1 || position.line > lineStarts.length) {
+			return -1;
+		}
+		return lineStarts[position.line - 1] + position.column - 1;
+	}
+
+	private static int[] lineStarts(String source) {
+		int lines = 1;
+		for (int i = 0; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if (c == '\n' || (c == '\r' && (i + 1 == source.length() || source.charAt(i + 1) != '\n'))) {
+				lines++;
+			}
+		}
+
+		int[] starts = new int[lines];
+		int line = 1;
+		for (int i = 0; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if (c == '\n' || (c == '\r' && (i + 1 == source.length() || source.charAt(i + 1) != '\n'))) {
+				starts[line++] = i + 1;
+			}
+		}
+		return starts;
+	}
+
+}
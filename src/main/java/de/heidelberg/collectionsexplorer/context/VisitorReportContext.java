@@ -4,6 +4,7 @@ import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
 
+import de.heidelberg.collectionsexplorer.Columns;
 import de.heidelberg.collectionsexplorer.Filter;
 import de.heidelberg.collectionsexplorer.beans.GenericInfo;
 
@@ -12,30 +13,59 @@ public class VisitorReportContext<T extends GenericInfo> {
 	private Report report;
 	private VisitorType visitorType;
 	private Filter filter;
+	private Columns columns;
 	
 	
 	
 	public VisitorReportContext(VisitorType visitorType, Filter filter) {
+		this(visitorType, filter, new Report());
+	}
+	
+	public VisitorReportContext(VisitorType visitorType, Filter filter, Report report) {
+		this(visitorType, filter, report, Columns.ALL);
+	}
+	
+	public VisitorReportContext(VisitorType visitorType, Filter filter, Report report, Columns columns) {
 		super();
 		this.visitorType = visitorType;
 		this.filter = filter;
-		this.report = new Report();
+		this.report = report;
+		this.columns = columns;
 	}
 
 	public Report getReport() {
 		return this.report;
 	}
 	
-	public void inspect(CompilationUnit cu, String path) {
+	public Columns getColumns() {
+		return this.columns;
+	}
+	
+	public Result<T> inspect(CompilationUnit cu, String path) {
+		return inspect(cu, path, null);
+	}
+	
+	public Result<T> inspect(CompilationUnit cu, String path, String project) {
 		
-		Result<T> objResult = new Result<>(path);
+		Result<T> objResult = collect(cu, path, project);
+		report.add(objResult);
+		
+		return objResult;
+	}
+	
+	/**
+	 * Visit the compilation unit without adding its result to the report.
+	 */
+	public Result<T> collect(CompilationUnit cu, String path, String project) {
+		
+		Result<T> objResult = new Result<>(path, project);
 		
 		// We have a state per file 
-		VoidVisitorAdapter<Result<T>> instance = visitorType.getInstance(filter);
+		VoidVisitorAdapter<Result<T>> instance = visitorType.getInstance(filter, columns);
 		
 		cu.accept(instance, objResult);
-		report.add(objResult);
 		
+		return objResult;
 	}
 
 }
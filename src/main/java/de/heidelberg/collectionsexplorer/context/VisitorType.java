@@ -3,7 +3,9 @@ package de.heidelberg.collectionsexplorer.context;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
 
+import de.heidelberg.collectionsexplorer.Columns;
 import de.heidelberg.collectionsexplorer.Filter;
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
 import de.heidelberg.collectionsexplorer.beans.ImportDeclarationInfo;
 import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
 import de.heidelberg.collectionsexplorer.beans.StreamOperationsInfo;
@@ -16,41 +18,121 @@ import de.heidelberg.collectionsexplorer.visitors.VariableDeclarationVisitor;
 @SuppressWarnings("unchecked")
 public enum VisitorType {
 	
-	OBJECT_CREATION("obj-creation.csv")
+	OBJECT_CREATION("obj-creation.csv", ObjectCreationInfo.class, "fullObjectType")
 	{
 		@Override
-		public VoidVisitorAdapter<Result<ObjectCreationInfo>> getInstance(Filter filter) {
-			return new ObjectCreationVisitor(filter);
+		public VoidVisitorAdapter<Result<ObjectCreationInfo>> getInstance(Filter filter, Columns columns) {
+			return new ObjectCreationVisitor(filter, columns);
+		}
+
+		@Override
+		public String typeOf(GenericInfo info) {
+			return ((ObjectCreationInfo) info).getFullObjectType();
+		}
+
+		@Override
+		public String identityOf(GenericInfo info) {
+			ObjectCreationInfo obj = (ObjectCreationInfo) info;
+			return scopeOf(obj.getQualifiedClassName(), obj.getMethodName()) + obj.getFullObjectType() + " "
+					+ obj.getArgumentTypes() + " " + obj.getArguments();
 		}
 
 	},
 	
-	VARIABLE_DECLARATION("var-declaration.csv") {
+	VARIABLE_DECLARATION("var-declaration.csv", VariableDeclarationInfo.class, "type") {
 		@Override
-		public VoidVisitorAdapter<Result<VariableDeclarationInfo>> getInstance(Filter filter) {
+		public VoidVisitorAdapter<Result<VariableDeclarationInfo>> getInstance(Filter filter, Columns columns) {
 			return new VariableDeclarationVisitor(filter);
 		}
+
+		@Override
+		public String typeOf(GenericInfo info) {
+			return ((VariableDeclarationInfo) info).getType();
+		}
+
+		@Override
+		public String identityOf(GenericInfo info) {
+			VariableDeclarationInfo var = (VariableDeclarationInfo) info;
+			return scopeOf(var.getQualifiedClassName(), var.getMethodName()) + var.getType() + " "
+					+ var.getTypeArguments() + " " + var.getName();
+		}
 	},
 	
-	IMPORT_DECLARATION("import-declaration.csv") {
+	IMPORT_DECLARATION("import-declaration.csv", ImportDeclarationInfo.class, "packageImported") {
 		@Override
-		public VoidVisitorAdapter<Result<ImportDeclarationInfo>> getInstance(Filter filter) {
+		public VoidVisitorAdapter<Result<ImportDeclarationInfo>> getInstance(Filter filter, Columns columns) {
 			return new ImportDeclarationVisitor(filter);
 		}
+
+		@Override
+		public String typeOf(GenericInfo info) {
+			return ((ImportDeclarationInfo) info).getPackageImported();
+		}
+
+		@Override
+		public String identityOf(GenericInfo info) {
+			return typeOf(info);
+		}
 	},
 	
-	STREAM_API_USAGE("stream-api-usage.csv") {
+	STREAM_API_USAGE("stream-api-usage.csv", StreamOperationsInfo.class, "sourceType") {
+		@Override
+		public VoidVisitorAdapter<Result<StreamOperationsInfo>>  getInstance(Filter filter, Columns columns) {
+			return new StreamAPIUsageVisitor(filter, columns);
+		}
+
 		@Override
-		public VoidVisitorAdapter<Result<StreamOperationsInfo>>  getInstance(Filter filter) {
-			return new StreamAPIUsageVisitor(filter);
+		public String typeOf(GenericInfo info) {
+			return String.valueOf(((StreamOperationsInfo) info).getStreamOperations());
+		}
+
+		@Override
+		public String identityOf(GenericInfo info) {
+			StreamOperationsInfo stream = (StreamOperationsInfo) info;
+			return scopeOf(stream.getQualifiedClassName(), stream.getMethodName()) + stream.getFullStreamOperation();
 		}
 	};
 	
-	public abstract <T> VoidVisitorAdapter<T> getInstance(Filter filter);
+	public <T> VoidVisitorAdapter<T> getInstance(Filter filter) {
+		return getInstance(filter, Columns.ALL);
+	}
+	
+	/**
+	 * @return a visitor that only computes the requested columns of its entries
+	 */
+	public abstract <T> VoidVisitorAdapter<T> getInstance(Filter filter, Columns columns);
+	
+	/**
+	 * @return the type an entry is aggregated by in the evolution table
+	 */
+	public abstract String typeOf(GenericInfo info);
+	
+	/**
+	 * @return an identity of the entry that does not depend on its position in
+	 *         the file, used to match the entries of two versions of a file
+	 */
+	public abstract String identityOf(GenericInfo info);
+	
+	private static String scopeOf(String qualifiedClassName, String methodName) {
+		return qualifiedClassName + "#" + methodName + " ";
+	}
+	
 	public String outputFile;
 	
-	private VisitorType(String outputFile) {
+	/**
+	 * The bean of the entries found by the visitor
+	 */
+	public Class<? extends GenericInfo> beanType;
+	
+	/**
+	 * The column holding the type of an entry, indexed when loaded in a database
+	 */
+	public String typeColumn;
+	
+	private VisitorType(String outputFile, Class<? extends GenericInfo> beanType, String typeColumn) {
 		this.outputFile = outputFile;
+		this.beanType = beanType;
+		this.typeColumn = typeColumn;
 	}
 
 	
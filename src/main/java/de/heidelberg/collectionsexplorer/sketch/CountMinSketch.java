@@ -0,0 +1,77 @@
+package de.heidelberg.collectionsexplorer.sketch;
+
+import java.io.Serializable;
+
+/**
+ * Count-Min sketch: frequency estimates in fixed memory. An estimate is never
+ * below the real count and exceeds it by at most <code>epsilon * total</code>
+ * with probability <code>1 - delta</code>.
+ * 
+ * @author diego.costa
+ *
+ */
+public class CountMinSketch implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int width;
+	private final int depth;
+	private final long[][] counts;
+	private long total = 0;
+
+	public CountMinSketch(double epsilon, double delta) {
+		this.width = (int) Math.ceil(Math.E / epsilon);
+		this.depth = (int) Math.ceil(Math.log(1 / delta));
+		this.counts = new long[depth][width];
+	}
+
+	public void add(String value, long count) {
+		long hash = SketchHash.hash64(value);
+		for (int row = 0; row < depth; row++) {
+			counts[row][bucket(hash, row)] += count;
+		}
+		total += count;
+	}
+
+	public long estimate(String value) {
+		long hash = SketchHash.hash64(value);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counts[row][bucket(hash, row)]);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Add the counts of a sketch with the same dimensions.
+	 */
+	public void merge(CountMinSketch other) {
+		if (other.width != width || other.depth != depth) {
+			throw new IllegalArgumentException("Count-Min sketches of different dimensions cannot be merged");
+		}
+		for (int row = 0; row < depth; row++) {
+			for (int column = 0; column < width; column++) {
+				counts[row][column] += other.counts[row][column];
+			}
+		}
+		total += other.total;
+	}
+
+	/**
+	 * @return the maximum over-estimation (with probability 1 - delta)
+	 */
+	public long getErrorBound() {
+		return (long) Math.ceil(Math.E / width * total);
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	private int bucket(long hash, int row) {
+		// Kirsch-Mitzenmacher: the rows use combinations of the two halves of the hash
+		int combined = (int) hash + row * (int) (hash >>> 32);
+		return (combined & Integer.MAX_VALUE) % width;
+	}
+
+}
@@ -0,0 +1,71 @@
+package de.heidelberg.collectionsexplorer.sketch;
+
+import java.io.Serializable;
+
+/**
+ * HyperLogLog: estimate of the number of distinct values in fixed memory, with
+ * a relative standard error of <code>1.04 / sqrt(2^precision)</code>.
+ * 
+ * @author diego.costa
+ *
+ */
+public class HyperLogLog implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int precision;
+	private final byte[] registers;
+
+	public HyperLogLog(int precision) {
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	public void add(String value) {
+		long hash = SketchHash.hash64(value);
+		int register = (int) (hash >>> (64 - precision));
+		// Position of the first 1 bit of the remaining bits
+		int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+		if (rank > registers[register]) {
+			registers[register] = (byte) rank;
+		}
+	}
+
+	public long estimate() {
+		int m = registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += 1.0 / (1L << register);
+			if (register == 0) {
+				zeros++;
+			}
+		}
+
+		double alpha = 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+
+		// Small range correction: linear counting
+		if (estimate <= 2.5 * m && zeros > 0) {
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	/**
+	 * Union with a sketch of the same precision.
+	 */
+	public void merge(HyperLogLog other) {
+		if (other.precision != precision) {
+			throw new IllegalArgumentException("HyperLogLog sketches of different precision cannot be merged");
+		}
+		for (int i = 0; i < registers.length; i++) {
+			registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+		}
+	}
+
+	public double getRelativeError() {
+		return 1.04 / Math.sqrt(registers.length);
+	}
+
+}
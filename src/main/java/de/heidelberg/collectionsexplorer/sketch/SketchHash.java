@@ -0,0 +1,36 @@
+package de.heidelberg.collectionsexplorer.sketch;
+
+/**
+ * 64-bit hash of strings used by the sketches. Fixed (unseeded), so sketches
+ * built by different threads, runs or machines can be merged.
+ * 
+ * @author diego.costa
+ *
+ */
+class SketchHash {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private SketchHash() {
+	}
+
+	/**
+	 * FNV-1a over the chars of the string followed by the MurmurHash3 finalizer,
+	 * so every bit of the result depends on every char.
+	 */
+	static long hash64(String value) {
+		long hash = FNV_OFFSET;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
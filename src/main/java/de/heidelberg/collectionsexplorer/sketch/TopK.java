@@ -0,0 +1,96 @@
+package de.heidelberg.collectionsexplorer.sketch;
+
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Heavy hitters of a stream: the <code>k</code> values with the highest
+ * Count-Min estimates are kept as candidates while values are added.
+ * 
+ * @author diego.costa
+ *
+ */
+public class TopK implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int k;
+	private final CountMinSketch counts;
+	private final Map<String, Long> candidates = new HashMap<>();
+	// Smallest estimate of the candidates, recomputed when replaced
+	private String minCandidate;
+
+	public TopK(int k, double epsilon, double delta) {
+		this.k = k;
+		this.counts = new CountMinSketch(epsilon, delta);
+	}
+
+	public void add(String value) {
+		counts.add(value, 1);
+		offer(value, counts.estimate(value));
+	}
+
+	private void offer(String value, long estimate) {
+		if (candidates.containsKey(value) || candidates.size() < k) {
+			candidates.put(value, estimate);
+			if (minCandidate == null || value.equals(minCandidate) || estimate < candidates.get(minCandidate)) {
+				updateMin();
+			}
+		} else if (estimate > candidates.get(minCandidate)) {
+			candidates.remove(minCandidate);
+			candidates.put(value, estimate);
+			updateMin();
+		}
+	}
+
+	private void updateMin() {
+		minCandidate = null;
+		for (Entry<String, Long> candidate : candidates.entrySet()) {
+			if (minCandidate == null || candidate.getValue() < candidates.get(minCandidate)) {
+				minCandidate = candidate.getKey();
+			}
+		}
+	}
+
+	/**
+	 * Merge the counts of another sketch. The candidates of both are estimated
+	 * again with the merged counts.
+	 */
+	public void merge(TopK other) {
+		counts.merge(other.counts);
+
+		List<String> values = new ArrayList<>(candidates.keySet());
+		values.addAll(other.candidates.keySet());
+		candidates.clear();
+		minCandidate = null;
+		for (String value : values) {
+			offer(value, counts.estimate(value));
+		}
+	}
+
+	/**
+	 * @return the heavy hitters and their estimated counts, most frequent first
+	 */
+	public List<Entry<String, Long>> getTop() {
+		List<Entry<String, Long>> top = new ArrayList<>();
+		for (String value : candidates.keySet()) {
+			top.add(new SimpleImmutableEntry<>(value, counts.estimate(value)));
+		}
+		top.sort(Entry.<String, Long>comparingByValue().reversed().thenComparing(Entry.comparingByKey()));
+		return top;
+	}
+
+	public long getErrorBound() {
+		return counts.getErrorBound();
+	}
+
+	public long getTotal() {
+		return counts.getTotal();
+	}
+
+}
@@ -0,0 +1,110 @@
+package de.heidelberg.collectionsexplorer.sketch;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.beans.StreamOperationsInfo;
+import de.heidelberg.collectionsexplorer.beans.StringListInfo;
+import de.heidelberg.collectionsexplorer.beans.VariableDeclarationInfo;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+/**
+ * TypeSketches summarizes the entries found by the visitors in bounded memory:
+ * for each dimension (object type, fully qualified type, type arguments,
+ * declared type, stream chain) a {@link TopK} of its heavy hitters and a
+ * {@link HyperLogLog} of its distinct values. Sketches of different threads or
+ * runs are combined with {@link #merge(TypeSketches)}.
+ * 
+ * @author diego.costa
+ *
+ */
+public class TypeSketches implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String OBJECT_TYPE = "objectType";
+	public static final String FULL_OBJECT_TYPE = "fullObjectType";
+	public static final String TYPE_ARGUMENT = "typeArgument";
+	public static final String DECLARED_TYPE = "declaredType";
+	public static final String STREAM_CHAIN = "streamChain";
+
+	// Count-Min error of 0.05% of the total with 99% probability
+	private static final double EPSILON = 0.0005;
+	private static final double DELTA = 0.01;
+	// 1.6% relative error for the distinct counts
+	private static final int HLL_PRECISION = 12;
+
+	private final int k;
+	private final Map<String, TopK> heavyHitters = new LinkedHashMap<>();
+	private final Map<String, HyperLogLog> distinct = new LinkedHashMap<>();
+
+	public TypeSketches(int k) {
+		this.k = k;
+		for (String dimension : new String[] { OBJECT_TYPE, FULL_OBJECT_TYPE, TYPE_ARGUMENT, DECLARED_TYPE,
+				STREAM_CHAIN }) {
+			heavyHitters.put(dimension, new TopK(k, EPSILON, DELTA));
+			distinct.put(dimension, new HyperLogLog(HLL_PRECISION));
+		}
+	}
+
+	/**
+	 * Add the values of an entry found by a visitor.
+	 */
+	public void add(VisitorType type, GenericInfo info) {
+		switch (type) {
+		case OBJECT_CREATION:
+			ObjectCreationInfo obj = (ObjectCreationInfo) info;
+			add(OBJECT_TYPE, obj.getObjectType());
+			add(FULL_OBJECT_TYPE, obj.getFullObjectType());
+			addAll(TYPE_ARGUMENT, obj.getArgumentTypes());
+			break;
+		case VARIABLE_DECLARATION:
+			add(DECLARED_TYPE, ((VariableDeclarationInfo) info).getType());
+			break;
+		case STREAM_API_USAGE:
+			StringListInfo chain = ((StreamOperationsInfo) info).getStreamOperations();
+			add(STREAM_CHAIN, chain == null ? null : chain.toString());
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void addAll(String dimension, StringListInfo values) {
+		if (values != null) {
+			for (String value : values.getListedInfo()) {
+				add(dimension, value);
+			}
+		}
+	}
+
+	private void add(String dimension, String value) {
+		if (value != null) {
+			heavyHitters.get(dimension).add(value);
+			distinct.get(dimension).add(value);
+		}
+	}
+
+	public void merge(TypeSketches other) {
+		for (String dimension : heavyHitters.keySet()) {
+			heavyHitters.get(dimension).merge(other.heavyHitters.get(dimension));
+			distinct.get(dimension).merge(other.distinct.get(dimension));
+		}
+	}
+
+	public Map<String, TopK> getHeavyHitters() {
+		return heavyHitters;
+	}
+
+	public Map<String, HyperLogLog> getDistinct() {
+		return distinct;
+	}
+
+	public int getK() {
+		return k;
+	}
+
+}
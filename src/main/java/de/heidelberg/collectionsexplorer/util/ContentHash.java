@@ -0,0 +1,45 @@
+package de.heidelberg.collectionsexplorer.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash of the content of a source file, used to identify identical files (e.g.
+ * forks and vendored copies) across projects.
+ * 
+ * @author diego.costa
+ *
+ */
+public class ContentHash {
+
+	private static final String ALGORITHM = "SHA-1";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * @return the hexadecimal SHA-1 of the content
+	 */
+	public static String of(byte[] content) {
+		return of(content, 0, content.length);
+	}
+
+	public static String of(byte[] content, int offset, int length) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+			digest.update(content, offset, length);
+			return toHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM is required to support SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+}
@@ -0,0 +1,77 @@
+package de.heidelberg.collectionsexplorer.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.pmw.tinylog.Logger;
+
+/**
+ * Table of the public types of the JDK and of common collection libraries
+ * (Guava, Apache Commons Collections), loaded once from
+ * <code>known-types.txt</code>. It allows qualifying names imported on demand
+ * (<code>import java.util.*;</code>) without a symbol solver.
+ * 
+ * @author diego.costa
+ *
+ */
+public class KnownTypes {
+
+	private static final String RESOURCE = "/known-types.txt";
+
+	private static final Map<String, Set<String>> TYPES_BY_PACKAGE = load();
+
+	/**
+	 * @return <code>true</code> if the package is part of the table
+	 */
+	public static boolean isKnownPackage(String packageName) {
+		return TYPES_BY_PACKAGE.containsKey(packageName);
+	}
+
+	/**
+	 * @return <code>true</code> if the package declares a public type with the
+	 *         given simple name
+	 */
+	public static boolean contains(String packageName, String simpleName) {
+		return TYPES_BY_PACKAGE.getOrDefault(packageName, Collections.emptySet()).contains(simpleName);
+	}
+
+	private static Map<String, Set<String>> load() {
+
+		Map<String, Set<String>> types = new HashMap<>();
+
+		try (InputStream in = KnownTypes.class.getResourceAsStream(RESOURCE)) {
+			if (in == null) {
+				Logger.error(String.format("Table of known types %s not found", RESOURCE));
+				return types;
+			}
+
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int separator = line.indexOf(':');
+				if (line.startsWith("#") || separator < 0) {
+					continue;
+				}
+				Set<String> names = new HashSet<>();
+				for (String name : line.substring(separator + 1).trim().split(" ")) {
+					names.add(name);
+				}
+				types.put(line.substring(0, separator).trim(), names);
+			}
+
+		} catch (IOException e) {
+			Logger.error(String.format("Error while reading the table of known types. Message: %s", e.getMessage()));
+		}
+
+		return types;
+	}
+
+}
@@ -0,0 +1,345 @@
+package de.heidelberg.collectionsexplorer.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.ThisExpr;
+import com.github.javaparser.ast.expr.VariableDeclarationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithStatements;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.stmt.ForEachStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.WildcardType;
+
+import de.heidelberg.collectionsexplorer.context.ImportIndex;
+
+/**
+ * Fast intra-file type inference, used instead of the symbol solver for the
+ * common cases. The declared type of variables, parameters and fields is found
+ * in the enclosing declarations of the expression and qualified with the
+ * {@link ImportIndex} of the file. Calls to methods of the enclosing class and
+ * to the views of a Map (<code>entrySet</code>, <code>keySet</code>,
+ * <code>values</code>) are supported as well.
+ *
+ * Inferred types are described as the symbol solver would describe them, e.g.
+ * <code>java.util.List&lt;java.lang.String&gt;</code>.
+ *
+ * @author diego.costa
+ *
+ */
+public class LocalTypeInference {
+
+	private static final String MAP_ENTRY = "java.util.Map.Entry";
+	private static final String SET = "java.util.Set";
+	private static final String COLLECTION = "java.util.Collection";
+
+	private final ImportIndex imports;
+
+	/**
+	 * Type name with its (already described) type arguments.
+	 */
+	private static class InferredType {
+
+		final String name;
+		final List<String> arguments;
+
+		InferredType(String name, List<String> arguments) {
+			this.name = name;
+			this.arguments = arguments;
+		}
+
+		boolean isMap() {
+			return name.endsWith("Map") && arguments.size() == 2;
+		}
+
+		String describe() {
+			if (arguments.isEmpty()) {
+				return name;
+			}
+			return name + "<" + String.join(", ", arguments) + ">";
+		}
+	}
+
+	public LocalTypeInference(ImportIndex imports) {
+		this.imports = imports;
+	}
+
+	/**
+	 * @return the described type of the expression or <code>null</code> if it
+	 *         cannot be inferred locally
+	 */
+	public String inferType(Expression expression) {
+		InferredType type = infer(expression);
+		return type == null ? null : type.describe();
+	}
+
+	private InferredType infer(Expression expression) {
+
+		if (expression instanceof NameExpr) {
+			return fromDeclaration(expression, ((NameExpr) expression).getNameAsString());
+		}
+
+		if (expression instanceof FieldAccessExpr) {
+			FieldAccessExpr fieldAccess = (FieldAccessExpr) expression;
+			if (fieldAccess.getScope() instanceof ThisExpr) {
+				return fromField(expression, fieldAccess.getNameAsString());
+			}
+			return null;
+		}
+
+		if (expression instanceof MethodCallExpr) {
+			return fromMethodCall((MethodCallExpr) expression);
+		}
+
+		if (expression instanceof ObjectCreationExpr) {
+			return fromType(((ObjectCreationExpr) expression).getType());
+		}
+
+		if (expression instanceof CastExpr) {
+			return fromType(((CastExpr) expression).getType());
+		}
+
+		if (expression instanceof EnclosedExpr) {
+			return infer(((EnclosedExpr) expression).getInner());
+		}
+
+		return null;
+	}
+
+	private InferredType fromMethodCall(MethodCallExpr call) {
+
+		Optional<Expression> scope = call.getScope();
+
+		// Method of the enclosing class
+		if (!scope.isPresent() || scope.get() instanceof ThisExpr) {
+			return fromEnclosingMethod(call);
+		}
+
+		InferredType receiver = infer(scope.get());
+		if (receiver == null || !receiver.isMap() || !call.getArguments().isEmpty()) {
+			return null;
+		}
+
+		switch (call.getNameAsString()) {
+		case "entrySet":
+			String entry = new InferredType(MAP_ENTRY, receiver.arguments).describe();
+			return new InferredType(SET, Collections.singletonList(entry));
+		case "keySet":
+			return new InferredType(SET, Collections.singletonList(receiver.arguments.get(0)));
+		case "values":
+			return new InferredType(COLLECTION, Collections.singletonList(receiver.arguments.get(1)));
+		default:
+			return null;
+		}
+	}
+
+	private InferredType fromEnclosingMethod(MethodCallExpr call) {
+
+		TypeDeclaration<?> type = call.findAncestor(TypeDeclaration.class).orElse(null);
+		if (type == null) {
+			return null;
+		}
+
+		for (MethodDeclaration method : type.getMethodsByName(call.getNameAsString())) {
+			if (method.getParameters().size() == call.getArguments().size()) {
+				return fromType(method.getType());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Walk up the enclosing blocks and declarations until the variable is
+	 * declared.
+	 */
+	private InferredType fromDeclaration(Node usage, String name) {
+
+		for (Node node = usage.getParentNode().orElse(null); node != null; node = node.getParentNode()
+				.orElse(null)) {
+
+			Optional<VariableDeclarator> variable = Optional.empty();
+			Optional<Parameter> parameter = Optional.empty();
+
+			if (node instanceof NodeWithStatements) {
+				variable = findInStatements(((NodeWithStatements<?>) node).getStatements(), name);
+			} else if (node instanceof ForStmt) {
+				variable = findInExpressions(((ForStmt) node).getInitialization(), name);
+			} else if (node instanceof ForEachStmt) {
+				variable = findInExpression(((ForEachStmt) node).getVariable(), name);
+			} else if (node instanceof TryStmt) {
+				variable = findInExpressions(((TryStmt) node).getResources(), name);
+			} else if (node instanceof CatchClause) {
+				parameter = findParameter(Collections.singletonList(((CatchClause) node).getParameter()), name);
+			} else if (node instanceof CallableDeclaration) {
+				parameter = findParameter(((CallableDeclaration<?>) node).getParameters(), name);
+			} else if (node instanceof LambdaExpr) {
+				parameter = findParameter(((LambdaExpr) node).getParameters(), name);
+			} else if (node instanceof RecordDeclaration) {
+				parameter = findParameter(((RecordDeclaration) node).getParameters(), name);
+			}
+
+			if (!variable.isPresent() && !parameter.isPresent()) {
+				if (node instanceof TypeDeclaration) {
+					variable = findField(((TypeDeclaration<?>) node).getMembers(), name);
+				} else if (node instanceof ObjectCreationExpr) {
+					variable = ((ObjectCreationExpr) node).getAnonymousClassBody()
+							.flatMap(body -> findField(body, name));
+				}
+			}
+
+			if (variable.isPresent()) {
+				return fromVariable(variable.get());
+			}
+			if (parameter.isPresent()) {
+				// Implicit lambda parameters shadow the name but have no declared type
+				return parameter.get().getType().isUnknownType() ? null : fromType(parameter.get().getType());
+			}
+		}
+
+		return null;
+	}
+
+	private InferredType fromField(Node usage, String name) {
+
+		TypeDeclaration<?> type = usage.findAncestor(TypeDeclaration.class).orElse(null);
+		if (type == null) {
+			return null;
+		}
+
+		Optional<VariableDeclarator> field = findField(type.getMembers(), name);
+		return field.isPresent() ? fromVariable(field.get()) : null;
+	}
+
+	private InferredType fromVariable(VariableDeclarator variable) {
+
+		if (isVar(variable.getType())) {
+			return variable.getInitializer().map(this::infer).orElse(null);
+		}
+		return fromType(variable.getType());
+	}
+
+	private boolean isVar(Type type) {
+		// Parsed as a class type when the parser is configured for Java < 10
+		return type.isVarType() || (type.isClassOrInterfaceType() && type.asString().equals("var"));
+	}
+
+	private InferredType fromType(Type type) {
+
+		if (type instanceof ClassOrInterfaceType) {
+			ClassOrInterfaceType classType = (ClassOrInterfaceType) type;
+
+			List<String> arguments = new ArrayList<>();
+			if (classType.getTypeArguments().isPresent()) {
+				for (Type argument : classType.getTypeArguments().get()) {
+					InferredType inferred = fromType(argument);
+					if (inferred == null) {
+						return null;
+					}
+					arguments.add(inferred.describe());
+				}
+			}
+			return new InferredType(imports.qualify(classType.getNameWithScope()), arguments);
+		}
+
+		if (type instanceof ArrayType) {
+			InferredType component = fromType(((ArrayType) type).getComponentType());
+			return component == null ? null : new InferredType(component.describe() + "[]", Collections.emptyList());
+		}
+
+		if (type instanceof WildcardType) {
+			WildcardType wildcard = (WildcardType) type;
+			String described = "?";
+			if (wildcard.getExtendedType().isPresent()) {
+				InferredType bound = fromType(wildcard.getExtendedType().get());
+				described = bound == null ? null : "? extends " + bound.describe();
+			} else if (wildcard.getSuperType().isPresent()) {
+				InferredType bound = fromType(wildcard.getSuperType().get());
+				described = bound == null ? null : "? super " + bound.describe();
+			}
+			return described == null ? null : new InferredType(described, Collections.emptyList());
+		}
+
+		if (type.isPrimitiveType()) {
+			return new InferredType(type.asString(), Collections.emptyList());
+		}
+
+		return null;
+	}
+
+	private Optional<VariableDeclarator> findInStatements(NodeList<Statement> statements, String name) {
+		for (Statement statement : statements) {
+			if (statement instanceof ExpressionStmt) {
+				Optional<VariableDeclarator> variable = findInExpression(((ExpressionStmt) statement).getExpression(),
+						name);
+				if (variable.isPresent()) {
+					return variable;
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	private Optional<VariableDeclarator> findInExpressions(NodeList<Expression> expressions, String name) {
+		for (Expression expression : expressions) {
+			Optional<VariableDeclarator> variable = findInExpression(expression, name);
+			if (variable.isPresent()) {
+				return variable;
+			}
+		}
+		return Optional.empty();
+	}
+
+	private Optional<VariableDeclarator> findInExpression(Expression expression, String name) {
+		if (expression instanceof VariableDeclarationExpr) {
+			return findVariable(((VariableDeclarationExpr) expression).getVariables(), name);
+		}
+		return Optional.empty();
+	}
+
+	private Optional<VariableDeclarator> findField(NodeList<BodyDeclaration<?>> members, String name) {
+		for (BodyDeclaration<?> member : members) {
+			if (member instanceof FieldDeclaration) {
+				Optional<VariableDeclarator> variable = findVariable(((FieldDeclaration) member).getVariables(), name);
+				if (variable.isPresent()) {
+					return variable;
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	private Optional<VariableDeclarator> findVariable(NodeList<VariableDeclarator> variables, String name) {
+		return variables.stream().filter(v -> v.getNameAsString().equals(name)).findFirst();
+	}
+
+	private Optional<Parameter> findParameter(List<Parameter> parameters, String name) {
+		return parameters.stream().filter(p -> p.getNameAsString().equals(name)).findFirst();
+	}
+
+}
@@ -4,10 +4,7 @@ import java.util.Optional;
 
 import com.github.javaparser.Position;
 import com.github.javaparser.Range;
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.PackageDeclaration;
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.nodeTypes.NodeWithRange;
 
@@ -22,18 +19,6 @@ public class ParserUtil {
 	
 	private static final int NO_INFO = -1;
 
-	public static String retrieveClass(Node n) {
-		
-		Optional<ClassOrInterfaceDeclaration> ancestorOfType = n.findAncestor(ClassOrInterfaceDeclaration.class);
-
-		if (ancestorOfType.isPresent()) {
-			ClassOrInterfaceDeclaration declr = ancestorOfType.get();
-			return declr.getNameAsString();
-		}
-
-		return "";
-	}
-
 	public static int getLineNumber(NodeWithRange<?> n) {
 		Optional<Position> begin = n.getBegin();
 		if(begin.isPresent()) {
@@ -51,21 +36,5 @@ public class ParserUtil {
 		
 		return NO_INFO;
 	}
-
-	public static String retrievePackageName(Node node) {
-		
-		Optional<CompilationUnit> ancestorOfType = node.findAncestor(CompilationUnit.class);
-		
-		if(ancestorOfType.isPresent()) {
-			CompilationUnit packageDeclaration = ancestorOfType.get();
-			
-			Optional<PackageDeclaration> pkg = packageDeclaration.getPackageDeclaration();
-			if(pkg.isPresent()) {
-				return pkg.get().getNameAsString();
-			}
-		}
-		
-		return "";
-	}
 	
 }
@@ -1,21 +1,16 @@
 package de.heidelberg.collectionsexplorer.visitors;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.github.javaparser.Position;
-import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.expr.Expression;
-import com.github.javaparser.ast.expr.Name;
 import com.github.javaparser.ast.expr.ObjectCreationExpr;
 import com.github.javaparser.ast.type.Type;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
+import de.heidelberg.collectionsexplorer.Columns;
 import de.heidelberg.collectionsexplorer.Filter;
 import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
 import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo.ObjectCreationInfoBuilder;
@@ -29,17 +24,22 @@ import de.heidelberg.collectionsexplorer.util.ParserUtil;
  * @author diego.costa
  *
  */
-public class ObjectCreationVisitor extends VoidVisitorAdapter<Result<ObjectCreationInfo>> {
+public class ObjectCreationVisitor extends ScopeTrackingVisitor<ObjectCreationInfo> {
+
+	private static final String FULL_OBJECT_TYPE = "fullObjectType";
+	private static final String ARGUMENT_TYPES = "argumentTypes";
+	private static final String ARGUMENTS = "arguments";
 
 	Filter filter;
-	
-	Map<String, String> importsDeclared;
+	Columns columns;
 
 	public ObjectCreationVisitor(Filter filter) {
+		this(filter, Columns.ALL);
+	}
+
+	public ObjectCreationVisitor(Filter filter, Columns columns) {
 		this.filter = filter;
-		importsDeclared = new HashMap<>();
-		
-		importsDeclared.keySet().stream().filter(x -> x.equals("s")).collect(Collectors.toList());
+		this.columns = columns;
 	}
 	
 	@Override
@@ -52,42 +52,33 @@ public class ObjectCreationVisitor extends VoidVisitorAdapter<Result<ObjectCreat
 		super.visit(n, ret);
 	}
 	
-	@Override
-	public void visit(ImportDeclaration n, Result<ObjectCreationInfo> arg) {
-			
-		Name name = n.getName();
-		
-		String identifier = name.getIdentifier();
-		Optional<Name> qualifier = name.getQualifier();
-		
-		if(qualifier.isPresent()) {
-			importsDeclared.put(identifier, qualifier.get().asString());
-		}
-		
-		super.visit(n, arg);
-		
-	}
-
-
 	private ObjectCreationInfo parse(ObjectCreationExpr exp) {
 
 		// Builds the info
 		ObjectCreationInfoBuilder builder = ObjectCreationInfo.builder();
 
-		// Class
-		builder.className(ParserUtil.retrieveClass(exp));
+		// Class (and its enclosing scope)
+		builder.className(scope.getClassName());
+		builder.qualifiedClassName(scope.getQualifiedClassName());
+		builder.methodName(scope.getMethodName());
 		
 		// Type Name
 		builder.objectType(exp.getType().getNameAsString());
 		
 		// Full Name
-		builder.fullObjectType(retrieveFullObjectType(exp));
+		if (columns.isRequested(FULL_OBJECT_TYPE)) {
+			builder.fullObjectType(retrieveFullObjectType(exp));
+		}
 		
 		// Argument Types
-		builder.argumentTypes(retrieveTypeArguments(exp));
+		if (columns.isRequested(ARGUMENT_TYPES)) {
+			builder.argumentTypes(retrieveTypeArguments(exp));
+		}
 
-		// Arguments
-		builder.arguments(retrieveArguments(exp));
+		// Arguments (as written in the source)
+		if (columns.isRequested(ARGUMENTS)) {
+			builder.arguments(retrieveArguments(exp));
+		}
 
 		// Position in the code
 		builder.lineNumber(ParserUtil.getLineNumber(exp));
@@ -97,15 +88,8 @@ public class ObjectCreationVisitor extends VoidVisitorAdapter<Result<ObjectCreat
 
 	private String retrieveFullObjectType(ObjectCreationExpr exp) {
 		
-		String type = exp.getType().getNameAsString();
-		
-		if(importsDeclared.containsKey(type)) {
-			String qualifiedName = importsDeclared.get(type);
-			return qualifiedName + "." + type;
-			
-		}
-		
-		return type;
+		// Shared index of the file (imports, declared types and known libraries)
+		return imports.qualify(exp.getType().getNameWithScope());
 	}
 
 	private StringListInfo retrieveArguments(ObjectCreationExpr exp) {
@@ -114,7 +98,7 @@ public class ObjectCreationVisitor extends VoidVisitorAdapter<Result<ObjectCreat
 
 		List<String> argumentsAsString = new ArrayList<>();
 		// Populate
-		arguments.stream().forEach(f -> argumentsAsString.add(f.toString()));
+		arguments.stream().forEach(f -> argumentsAsString.add(source.textOf(f)));
 
 		return new StringListInfo(argumentsAsString);
 	}
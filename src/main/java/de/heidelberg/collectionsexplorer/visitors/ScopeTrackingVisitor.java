@@ -0,0 +1,163 @@
+package de.heidelberg.collectionsexplorer.visitors;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.AnnotationDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.context.ImportIndex;
+import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.Scope;
+import de.heidelberg.collectionsexplorer.context.SourceText;
+
+/**
+ * Base visitor that keeps track of the enclosing {@link Scope} (package, class
+ * and method) during the traversal and exposes the {@link ImportIndex} and
+ * the {@link SourceText} of the file being visited. Visitors extending this class should call the
+ * <code>super.visit</code> methods to keep traversing the tree.
+ * 
+ * @author diego.costa
+ *
+ */
+public abstract class ScopeTrackingVisitor<T extends GenericInfo> extends VoidVisitorAdapter<Result<T>> {
+
+	protected final Scope scope = new Scope();
+	protected ImportIndex imports = ImportIndex.EMPTY;
+	protected SourceText source = SourceText.EMPTY;
+
+	@Override
+	public void visit(CompilationUnit n, Result<T> arg) {
+		imports = ImportIndex.of(n);
+		source = SourceText.of(n);
+		scope.setPackageName(imports.getPackageName());
+		super.visit(n, arg);
+	}
+
+	@Override
+	public void visit(ClassOrInterfaceDeclaration n, Result<T> arg) {
+		if (n.isLocalClassDeclaration()) {
+			scope.enterLocalType(n.getNameAsString());
+		} else {
+			scope.enterType(n.getNameAsString());
+		}
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(EnumDeclaration n, Result<T> arg) {
+		scope.enterType(n.getNameAsString());
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(RecordDeclaration n, Result<T> arg) {
+		scope.enterType(n.getNameAsString());
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(AnnotationDeclaration n, Result<T> arg) {
+		scope.enterType(n.getNameAsString());
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(MethodDeclaration n, Result<T> arg) {
+		scope.enterMethod(n.getNameAsString());
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(ConstructorDeclaration n, Result<T> arg) {
+		scope.enterConstructor();
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(InitializerDeclaration n, Result<T> arg) {
+		scope.enterInitializer(n.isStatic());
+		try {
+			super.visit(n, arg);
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(ObjectCreationExpr n, Result<T> arg) {
+
+		if (!n.getAnonymousClassBody().isPresent()) {
+			super.visit(n, arg);
+			return;
+		}
+
+		// Only the body belongs to the anonymous class
+		n.getArguments().forEach(p -> p.accept(this, arg));
+		n.getScope().ifPresent(l -> l.accept(this, arg));
+		n.getType().accept(this, arg);
+		n.getTypeArguments().ifPresent(l -> l.forEach(p -> p.accept(this, arg)));
+		n.getComment().ifPresent(l -> l.accept(this, arg));
+
+		scope.enterAnonymousType();
+		try {
+			n.getAnonymousClassBody().get().forEach(p -> p.accept(this, arg));
+		} finally {
+			scope.exit();
+		}
+	}
+
+	@Override
+	public void visit(EnumConstantDeclaration n, Result<T> arg) {
+
+		if (n.getClassBody().isEmpty()) {
+			super.visit(n, arg);
+			return;
+		}
+
+		// Only the body belongs to the anonymous class
+		n.getArguments().forEach(p -> p.accept(this, arg));
+		n.getName().accept(this, arg);
+		n.getAnnotations().forEach(p -> p.accept(this, arg));
+		n.getComment().ifPresent(l -> l.accept(this, arg));
+
+		scope.enterAnonymousType();
+		try {
+			n.getClassBody().forEach(p -> p.accept(this, arg));
+		} finally {
+			scope.exit();
+		}
+	}
+
+}
@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
@@ -13,28 +15,50 @@ import org.pmw.tinylog.Logger;
 
 import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.resolution.types.ResolvedType;
 
+import de.heidelberg.collectionsexplorer.Columns;
 import de.heidelberg.collectionsexplorer.Filter;
 import de.heidelberg.collectionsexplorer.beans.StreamOperationsInfo;
 import de.heidelberg.collectionsexplorer.beans.StreamOperationsInfo.StreamOperationsInfoBuilder;
 import de.heidelberg.collectionsexplorer.beans.StringListInfo;
+import de.heidelberg.collectionsexplorer.context.ImportIndex;
 import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.util.LocalTypeInference;
 import de.heidelberg.collectionsexplorer.util.ParserUtil;
 
 // FIXME: This class can be more generic - extract all methodCall until you
 // reach a particular methodCall (anchor)
-public class StreamAPIUsageVisitor extends VoidVisitorAdapter<Result<StreamOperationsInfo>> {
+public class StreamAPIUsageVisitor extends ScopeTrackingVisitor<StreamOperationsInfo> {
 
     private static final String UNKNOWN_TYPE = "UNK";
 
     private static final String STREAM = "stream";
     private static final String PARALLEL_STREAM = "parallelStream";
 
+    private static final String FULL_STREAM_OPERATION = "fullStreamOperation";
+    private static final String SOURCE_TYPE = "sourceType";
+
+    private final Columns columns;
+
+    // The symbol solver is only used when the parser was configured with one
+    private boolean solverConfigured = false;
+    private LocalTypeInference inference;
+
     public StreamAPIUsageVisitor(Filter filter) {
+        this(filter, Columns.ALL);
+    }
+
+    public StreamAPIUsageVisitor(Filter filter, Columns columns) {
         // Ignoring filter for now...
+        this.columns = columns;
+    }
 
+    @Override
+    public void visit(final CompilationUnit n, final Result<StreamOperationsInfo> result) {
+        solverConfigured = n.containsData(Node.SYMBOL_RESOLVER_KEY);
+        inference = new LocalTypeInference(ImportIndex.of(n));
+        super.visit(n, result);
     }
 
     @Override
@@ -61,14 +85,18 @@ public class StreamAPIUsageVisitor extends VoidVisitorAdapter<Result<StreamOpera
 
             StreamOperationsInfoBuilder builder = StreamOperationsInfo.builder();
 
-            // FullStreamCall
-            builder.fullStreamOperation(methodCall.toString());
+            // FullStreamCall (as written in the source)
+            if (columns.isRequested(FULL_STREAM_OPERATION)) {
+                builder.fullStreamOperation(source.textOf(methodCall));
+            }
 
             // Class Name
-            builder.className(ParserUtil.retrieveClass(methodCall));
+            builder.className(scope.getClassName());
+            builder.qualifiedClassName(scope.getQualifiedClassName());
+            builder.methodName(scope.getMethodName());
 
             // Package Name
-            builder.packageName(ParserUtil.retrievePackageName(methodCall));
+            builder.packageName(scope.getPackageName());
 
             // Position (line + col)
             builder.lineNumber(ParserUtil.getLineNumber(methodCall));
@@ -78,10 +106,12 @@ public class StreamAPIUsageVisitor extends VoidVisitorAdapter<Result<StreamOpera
             StringListInfo chain = extractMethodChain(methodCall);
             builder.streamOperations(chain);
 
-            // Source type
-            Optional<Expression> scope = streamMethodCall.get().getScope();
-            String type = extractType(scope);
-            builder.sourceType(type);
+            // Source type (may need the symbol solver)
+            if (columns.isRequested(SOURCE_TYPE)) {
+                Optional<Expression> scope = streamMethodCall.get().getScope();
+                String type = extractType(scope);
+                builder.sourceType(type);
+            }
 
             return builder.build();
         }
@@ -91,17 +121,19 @@ public class StreamAPIUsageVisitor extends VoidVisitorAdapter<Result<StreamOpera
 
     private boolean returnsStreamType(MethodCallExpr methodCallExpr) {
 
-        try {
-            ResolvedMethodDeclaration resolve = methodCallExpr.resolve();
-            String describe = resolve.getReturnType().describe();
-            // Return
-            return describe.startsWith("java.util.stream");
+        if (solverConfigured) {
+            try {
+                ResolvedMethodDeclaration resolve = methodCallExpr.resolve();
+                String describe = resolve.getReturnType().describe();
+                // Return
+                return describe.startsWith("java.util.stream");
 
-        } catch (Exception e) {
-            // Trace level as this is expected to happen quite often
-            Logger.trace(String.format("Error while identifying the " +
-                    "types for the method call = %s", methodCallExpr.toString()));
+            } catch (Exception e) {
+                // Trace level as this is expected to happen quite often
+                Logger.trace(String.format("Error while identifying the " +
+                        "types for the method call = %s", methodCallExpr.toString()));
 
+            }
         }
 
         return methodCallExpr.getNameAsString().equals("stream")
@@ -130,15 +162,27 @@ public class StreamAPIUsageVisitor extends VoidVisitorAdapter<Result<StreamOpera
     }
 
     private String extractType(Optional<Expression> scope) {
-        try {
-            if (scope.isPresent()) {
 
-                Expression expression = scope.get();
-                ResolvedType resolvedType = expression.calculateResolvedType();
+        if (!scope.isPresent()) {
+            return UNKNOWN_TYPE;
+        }
 
-                // ResolvedType rt = JavaParserFacade.get(solver).getType(scope.get());
-                return resolvedType.describe();
-            }
+        // Fast path: declared types of the file (variables, fields, parameters)
+        String inferred = inference == null ? null : inference.inferType(scope.get());
+        if (inferred != null) {
+            return inferred;
+        }
+
+        if (!solverConfigured) {
+            return UNKNOWN_TYPE;
+        }
+
+        try {
+            Expression expression = scope.get();
+            ResolvedType resolvedType = expression.calculateResolvedType();
+
+            // ResolvedType rt = JavaParserFacade.get(solver).getType(scope.get());
+            return resolvedType.describe();
         } catch (Exception e) {
             // Trace level as this is expected to happen quite often
             Logger.trace(String.format("Error while identifying the types for the scope = %s", scope.get().toString()));
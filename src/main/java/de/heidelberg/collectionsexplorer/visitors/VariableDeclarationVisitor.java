@@ -8,7 +8,6 @@ import com.github.javaparser.Position;
 import com.github.javaparser.Range;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
 import de.heidelberg.collectionsexplorer.Filter;
 import de.heidelberg.collectionsexplorer.beans.StringListInfo;
@@ -17,7 +16,7 @@ import de.heidelberg.collectionsexplorer.beans.VariableDeclarationInfo.VariableD
 import de.heidelberg.collectionsexplorer.context.Result;
 import de.heidelberg.collectionsexplorer.util.ParserUtil;
 
-public class VariableDeclarationVisitor extends VoidVisitorAdapter<Result<VariableDeclarationInfo>> {
+public class VariableDeclarationVisitor extends ScopeTrackingVisitor<VariableDeclarationInfo> {
 	
 	Filter filter;
 	
@@ -46,8 +45,10 @@ public class VariableDeclarationVisitor extends VoidVisitorAdapter<Result<Variab
 		// Name
 		builder.name(exp.getNameAsString());
 		
-		// Class Name
-		builder.className(ParserUtil.retrieveClass(exp));
+		// Class Name (and its enclosing scope)
+		builder.className(scope.getClassName());
+		builder.qualifiedClassName(scope.getQualifiedClassName());
+		builder.methodName(scope.getMethodName());
 		
 		// Type Arguments
 		builder.typeArguments(new StringListInfo(retrieveTypeArguments(exp)));
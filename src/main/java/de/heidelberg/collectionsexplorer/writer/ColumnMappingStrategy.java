@@ -0,0 +1,40 @@
+package de.heidelberg.collectionsexplorer.writer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.pmw.tinylog.Logger;
+
+import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+
+import de.heidelberg.collectionsexplorer.Columns;
+
+/**
+ * Header mapping that only writes the requested columns of a bean, in the
+ * same order they have in the full report.
+ */
+class ColumnMappingStrategy<T> extends HeaderColumnNameMappingStrategy<T> {
+
+	private final Columns columns;
+
+	ColumnMappingStrategy(Class<? extends T> type, Columns columns) {
+		this.columns = columns;
+		setType(type);
+	}
+
+	@Override
+	public String[] generateHeader() {
+		if (header == null) {
+			List<String> all = Arrays.asList(super.generateHeader());
+			for (String name : columns.getNames()) {
+				if (!all.contains(name)) {
+					Logger.warn(String.format("Unknown column %s for %s, available columns: %s", name,
+							type.getSimpleName(), all));
+				}
+			}
+			header = all.stream().filter(columns::isRequested).toArray(String[]::new);
+		}
+		return header.clone();
+	}
+
+}
@@ -0,0 +1,99 @@
+package de.heidelberg.collectionsexplorer.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+/**
+ * Codecs of the reports, chosen by the extension of the file written. The
+ * compressed codecs compress blocks of the output in parallel (see
+ * {@link ParallelBlockOutputStream}), each block as a complete gzip member or
+ * LZ4 frame; the concatenation is read back by the standard tools
+ * (<code>gunzip</code>, <code>zcat</code>, <code>lz4 -d</code>).
+ * 
+ * @author diego.costa
+ *
+ */
+public enum Compression {
+
+	NONE("", null),
+
+	GZIP(".gz", Compression::gzip),
+
+	/**
+	 * Faster than gzip, at the cost of larger files (the native lz4-java
+	 * compressor, where its platform is supported)
+	 */
+	LZ4(".lz4", Compression::lz4);
+
+	/**
+	 * Compresses a block of a report into a self-contained form
+	 */
+	interface BlockCompressor {
+		byte[] compress(byte[] block, int length) throws IOException;
+	}
+
+	public final String extension;
+
+	// Null when the reports are not compressed
+	final BlockCompressor compressor;
+
+	private Compression(String extension, BlockCompressor compressor) {
+		this.extension = extension;
+		this.compressor = compressor;
+	}
+
+	private static byte[] gzip(byte[] block, int length) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4);
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(block, 0, length);
+		}
+		return compressed.toByteArray();
+	}
+
+	private static byte[] lz4(byte[] block, int length) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2);
+		try (LZ4FrameOutputStream out = new LZ4FrameOutputStream(compressed)) {
+			out.write(block, 0, length);
+		}
+		return compressed.toByteArray();
+	}
+
+	/**
+	 * @return the codec of a file, by its extension
+	 */
+	public static Compression of(File file) {
+		for (Compression compression : values()) {
+			if (compression != NONE && file.getName().endsWith(compression.extension)) {
+				return compression;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return the codec named by an option value (none, gzip or lz4)
+	 */
+	public static Compression of(String name) {
+		try {
+			return valueOf(name.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Unknown compression %s, use none, gzip or lz4", name));
+		}
+	}
+
+	/**
+	 * Open the file for writing, compressed by the codec of its extension.
+	 */
+	public static OutputStream open(File file) throws IOException {
+		Compression compression = of(file);
+		OutputStream out = new FileOutputStream(file);
+		return compression == NONE ? out : new ParallelBlockOutputStream(out, compression.compressor);
+	}
+
+}
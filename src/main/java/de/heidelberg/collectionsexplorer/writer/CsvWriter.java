@@ -1,24 +1,86 @@
 package de.heidelberg.collectionsexplorer.writer;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 
 import com.opencsv.CSVWriter;
 import com.opencsv.bean.StatefulBeanToCsv;
 import com.opencsv.bean.StatefulBeanToCsvBuilder;
 
+import de.heidelberg.collectionsexplorer.Columns;
+
 public class CsvWriter {
 
-	public static <T> void writeInfo(File toWrite, List<T> infoList) throws Exception {
+	public static <T> long writeInfo(File toWrite, List<T> infoList) throws Exception {
+		return writeInfo(toWrite, infoList, Columns.ALL);
+	}
+
+	/**
+	 * Write only the requested columns of the entries.
+	 * 
+	 * @return the number of entries written
+	 */
+	public static <T> long writeInfo(File toWrite, List<T> infoList, Columns columns) throws Exception {
 
-		try (Writer writer = new FileWriter(toWrite)) {
-			StatefulBeanToCsv<T> sbc = new StatefulBeanToCsvBuilder<T>(writer)
-					.withSeparator(CSVWriter.DEFAULT_SEPARATOR).build();
+		try (Writer writer = open(toWrite)) {
+			if (infoList.isEmpty()) {
+				return 0;
+			}
+			StatefulBeanToCsv<T> sbc = beanToCsv(writer, infoList.get(0), columns);
 
 			sbc.write(infoList);
+			return infoList.size();
+		}
+	}
+
+	/**
+	 * Write the entries one at a time, without holding them all in memory.
+	 */
+	public static <T> long writeInfo(File toWrite, Iterator<T> infoIterator) throws Exception {
+		return writeInfo(toWrite, infoIterator, Columns.ALL);
+	}
+
+	public static <T> long writeInfo(File toWrite, Iterator<T> infoIterator, Columns columns) throws Exception {
+
+		try (Writer writer = open(toWrite)) {
+			if (!infoIterator.hasNext()) {
+				return 0;
+			}
+			T first = infoIterator.next();
+			StatefulBeanToCsv<T> sbc = beanToCsv(writer, first, columns);
+
+			sbc.write(first);
+			long rows = 1;
+			while (infoIterator.hasNext()) {
+				sbc.write(infoIterator.next());
+				rows++;
+			}
+			return rows;
+		}
+	}
+
+	/**
+	 * @return a writer of the file, compressed according to its extension (see
+	 *         {@link Compression})
+	 */
+	private static Writer open(File toWrite) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(Compression.open(toWrite)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> StatefulBeanToCsv<T> beanToCsv(Writer writer, T first, Columns columns) {
+
+		StatefulBeanToCsvBuilder<T> builder = new StatefulBeanToCsvBuilder<T>(writer)
+				.withSeparator(CSVWriter.DEFAULT_SEPARATOR);
+		if (!columns.isAll()) {
+			builder.withMappingStrategy(new ColumnMappingStrategy<>((Class<T>) first.getClass(), columns));
 		}
+		return builder.build();
 	}
 
 }
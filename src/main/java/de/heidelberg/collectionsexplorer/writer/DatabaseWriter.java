@@ -0,0 +1,225 @@
+package de.heidelberg.collectionsexplorer.writer;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.pmw.tinylog.Logger;
+
+import com.opencsv.bean.CsvBindByName;
+
+import de.heidelberg.collectionsexplorer.Columns;
+
+/**
+ * Writes the entries of the reports into an embedded, file based H2 database,
+ * one table per report with the same columns as its CSV file. The rows are
+ * loaded with batched prepared inserts and the indexes are only built once a
+ * table is loaded.
+ * 
+ * @author diego.costa
+ *
+ */
+public class DatabaseWriter implements AutoCloseable {
+
+	private static final int BATCH_SIZE = 5000;
+
+	private final Connection connection;
+
+	/**
+	 * @param database
+	 *            the database file, without the <code>.mv.db</code> extension
+	 *            added by H2
+	 */
+	public DatabaseWriter(File database) throws SQLException {
+		this.connection = DriverManager.getConnection("jdbc:h2:file:" + database.getAbsolutePath());
+		this.connection.setAutoCommit(false);
+	}
+
+	/**
+	 * (Re)create the table and load the entries into it.
+	 * 
+	 * @param table
+	 *            the name of the table, replaced if it exists
+	 * @param type
+	 *            the bean of the entries
+	 * @param entries
+	 *            the entries, read once
+	 * @param columns
+	 *            the columns of the bean to be written
+	 * @param indexed
+	 *            the columns to be indexed after the load, ignored if not written
+	 * @return the number of rows loaded
+	 */
+	public long writeInfo(String table, Class<?> type, Iterator<?> entries, Columns columns, String... indexed)
+			throws SQLException {
+
+		List<Field> fields = fieldsOf(type, columns);
+		List<String> names = fields.stream().map(f -> f.getName().toUpperCase()).collect(Collectors.toList());
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(String.format("DROP TABLE IF EXISTS %s", table));
+			statement.execute(String.format("CREATE TABLE %s (%s)", table, fields.stream()
+					.map(f -> f.getName().toUpperCase() + " " + sqlType(f)).collect(Collectors.joining(", "))));
+		}
+
+		long rows = insert(table, fields, entries, true);
+		connection.commit();
+
+		try (Statement statement = connection.createStatement()) {
+			for (String column : indexed) {
+				String name = column.toUpperCase();
+				if (names.contains(name)) {
+					statement.execute(String.format("CREATE INDEX IDX_%s_%s ON %s (%s)", table, name, table, name));
+				}
+			}
+			connection.commit();
+		}
+
+		Logger.debug(String.format("%d rows loaded into %s", rows, table));
+		return rows;
+	}
+
+	/**
+	 * Replace the rows of some files, e.g. once they changed, in one
+	 * transaction: the rows of a path, or of a file under a path (a folder),
+	 * are deleted and the current entries of the paths are inserted.
+	 * 
+	 * @param table
+	 *            the name of a table written by
+	 *            {@link #writeInfo(String, Class, Iterator, Columns, String...)}
+	 * @param key
+	 *            the column holding the path of the file of a row
+	 * @param paths
+	 *            the paths replaced
+	 * @param entries
+	 *            the entries of the paths, read once
+	 * @return the number of rows of the table afterwards
+	 */
+	public long replaceRows(String table, Class<?> type, String key, Collection<String> paths, Iterator<?> entries,
+			Columns columns) throws SQLException {
+
+		String column = key.toUpperCase();
+		String delete = String.format("DELETE FROM %s WHERE %s = ? OR %s LIKE ? ESCAPE '\\'", table, column, column);
+		try (PreparedStatement statement = connection.prepareStatement(delete)) {
+			for (String path : paths) {
+				statement.setString(1, path);
+				statement.setString(2, escapeLike(path + File.separator) + "%");
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+
+		insert(table, fieldsOf(type, columns), entries, false);
+		connection.commit();
+
+		try (Statement statement = connection.createStatement();
+				ResultSet count = statement.executeQuery(String.format("SELECT COUNT(*) FROM %s", table))) {
+			count.next();
+			return count.getLong(1);
+		}
+	}
+
+	/**
+	 * @param commitBatches
+	 *            commit each batch, instead of leaving the transaction to the
+	 *            caller
+	 * @return the number of rows inserted
+	 */
+	private long insert(String table, List<Field> fields, Iterator<?> entries, boolean commitBatches)
+			throws SQLException {
+
+		List<String> names = fields.stream().map(f -> f.getName().toUpperCase()).collect(Collectors.toList());
+		long rows = 0;
+		String insert = String.format("INSERT INTO %s (%s) VALUES (%s)", table, String.join(", ", names),
+				String.join(", ", Collections.nCopies(names.size(), "?")));
+		try (PreparedStatement statement = connection.prepareStatement(insert)) {
+			while (entries.hasNext()) {
+				Object entry = entries.next();
+				for (int i = 0; i < fields.size(); i++) {
+					bind(statement, i + 1, fields.get(i), entry);
+				}
+				statement.addBatch();
+
+				// Bounded batches keep the memory and the undo log small
+				if (++rows % BATCH_SIZE == 0) {
+					statement.executeBatch();
+					if (commitBatches) {
+						connection.commit();
+					}
+				}
+			}
+			statement.executeBatch();
+		}
+		return rows;
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	@Override
+	public void close() throws SQLException {
+		connection.close();
+	}
+
+	private static void bind(PreparedStatement statement, int index, Field field, Object entry)
+			throws SQLException {
+		Object value;
+		try {
+			value = field.get(entry);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+
+		if (value == null) {
+			statement.setNull(index, isInteger(field) ? Types.INTEGER : Types.VARCHAR);
+		} else if (isInteger(field)) {
+			statement.setLong(index, ((Number) value).longValue());
+		} else {
+			statement.setString(index, value.toString());
+		}
+	}
+
+	private static boolean isInteger(Field field) {
+		Class<?> type = field.getType();
+		return type == int.class || type == long.class || type == Integer.class || type == Long.class;
+	}
+
+	private static String sqlType(Field field) {
+		return isInteger(field) ? "BIGINT" : "VARCHAR";
+	}
+
+	/**
+	 * @return the fields of the bean written as columns, in the same order
+	 *         opencsv writes them
+	 */
+	private static List<Field> fieldsOf(Class<?> type, Columns columns) {
+		List<Field> fields = new ArrayList<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || !field.isAnnotationPresent(CsvBindByName.class)
+						|| !columns.isRequested(field.getName())) {
+					continue;
+				}
+				field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+		fields.sort((a, b) -> a.getName().toUpperCase().compareTo(b.getName().toUpperCase()));
+		return fields;
+	}
+
+}
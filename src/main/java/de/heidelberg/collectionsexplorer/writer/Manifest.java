@@ -0,0 +1,73 @@
+package de.heidelberg.collectionsexplorer.writer;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import de.heidelberg.collectionsexplorer.beans.OutputFileInfo;
+
+/**
+ * Manifest lists the files written by a run, with the report and part each of
+ * them holds. Files are added concurrently by the export tasks and the
+ * manifest is written last, so it only lists complete files.
+ * 
+ * @author diego.costa
+ *
+ */
+public class Manifest {
+
+	public static final String MANIFEST_FILE = "manifest.csv";
+
+	private final List<OutputFileInfo> files = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Add a file once it has been completely written.
+	 */
+	public void add(String report, int part, File file, long rows) {
+		files.add(OutputFileInfo.builder().report(report).part(part).file(file.getPath()).rows(rows)
+				.bytes(file.length()).build());
+	}
+
+	/**
+	 * Remove some of the files of a report, e.g. before they are written again.
+	 * 
+	 * @return the files removed
+	 */
+	public List<File> remove(String report, Predicate<File> which) {
+		List<File> removed = new ArrayList<>();
+		synchronized (files) {
+			files.removeIf(info -> info.getReport().equals(report) && which.test(new File(info.getFile()))
+					&& removed.add(new File(info.getFile())));
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the files added so far, ordered by report and part
+	 */
+	public List<OutputFileInfo> getFiles() {
+		List<OutputFileInfo> sorted;
+		synchronized (files) {
+			sorted = new ArrayList<>(files);
+		}
+		sorted.sort(Comparator.comparing(OutputFileInfo::getReport).thenComparingInt(OutputFileInfo::getPart)
+				.thenComparing(OutputFileInfo::getFile));
+		return sorted;
+	}
+
+	/**
+	 * Write the manifest to a temporary file and move it in place, so a reader
+	 * never sees a partial manifest.
+	 */
+	public void write(File toWrite) throws Exception {
+		File temporary = new File(toWrite.getPath() + ".tmp");
+		CsvWriter.writeInfo(temporary, getFiles());
+		Files.move(temporary.toPath(), toWrite.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+}
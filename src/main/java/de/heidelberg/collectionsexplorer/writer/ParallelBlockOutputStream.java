@@ -0,0 +1,126 @@
+package de.heidelberg.collectionsexplorer.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Output stream that splits what is written into blocks, compresses the
+ * blocks on a background pool and writes them, in order, to the underlying
+ * stream. A bounded number of blocks is in flight, so the memory used stays
+ * constant however large the report is.
+ * 
+ * @author diego.costa
+ *
+ */
+class ParallelBlockOutputStream extends OutputStream {
+
+	static final int BLOCK_SIZE = 1 << 20;
+	private static final int THREADS = Runtime.getRuntime().availableProcessors();
+	private static final int MAX_IN_FLIGHT = 2 * THREADS;
+
+	private final OutputStream out;
+	private final Compression.BlockCompressor compressor;
+	private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int length = 0;
+	private boolean submitted = false;
+	private boolean closed = false;
+
+	/**
+	 * Shared by all the reports, created on the first compressed report
+	 */
+	private static class Pool {
+		private static final ExecutorService COMPRESSORS = Executors.newFixedThreadPool(THREADS, r -> {
+			Thread thread = new Thread(r, "report-compressor");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	ParallelBlockOutputStream(OutputStream out, Compression.BlockCompressor compressor) {
+		this.out = out;
+		this.compressor = compressor;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (length == BLOCK_SIZE) {
+			submit();
+		}
+		block[length++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (length == BLOCK_SIZE) {
+				submit();
+			}
+			int copied = Math.min(len, BLOCK_SIZE - length);
+			System.arraycopy(b, off, block, length, copied);
+			length += copied;
+			off += copied;
+			len -= copied;
+		}
+	}
+
+	/**
+	 * Blocks are only compressed once full; flushing does not cut a block.
+	 */
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			// An empty report is still one (empty) gzip member or LZ4 frame, not an empty file
+			if (length > 0 || !submitted) {
+				submit();
+			}
+			while (!inFlight.isEmpty()) {
+				writeOldest();
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private void submit() throws IOException {
+		byte[] full = block;
+		int fullLength = length;
+		inFlight.add(Pool.COMPRESSORS.submit(() -> compressor.compress(full, fullLength)));
+		submitted = true;
+
+		block = new byte[BLOCK_SIZE];
+		length = 0;
+
+		while (inFlight.size() > MAX_IN_FLIGHT) {
+			writeOldest();
+		}
+	}
+
+	private void writeOldest() throws IOException {
+		try {
+			out.write(inFlight.poll().get());
+		} catch (ExecutionException e) {
+			throw new IOException("Could not compress the report", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing the report", e);
+		}
+	}
+
+}
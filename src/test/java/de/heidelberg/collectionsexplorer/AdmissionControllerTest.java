@@ -0,0 +1,60 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test suite for the memory admission control")
+public class AdmissionControllerTest {
+
+	@Test
+	public void testSerializesUnderPressure() throws InterruptedException {
+
+		// No heap available: files are parsed one at a time
+		AdmissionController admission = new AdmissionController(0);
+		long first = admission.acquire("A.java", 1000);
+
+		CountDownLatch admitted = new CountDownLatch(1);
+		Thread second = new Thread(() -> {
+			try {
+				admission.release(admission.acquire("B.java", 10));
+				admitted.countDown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		second.start();
+
+		assertEquals(false, admitted.await(300, TimeUnit.MILLISECONDS));
+		admission.release(first);
+		assertEquals(true, admitted.await(5, TimeUnit.SECONDS));
+		assertEquals(1, admission.getThrottledFiles());
+	}
+
+	@Test
+	public void testOnlyHeapPoolsCount() {
+
+		Map<String, MemoryUsage> usage = new HashMap<>();
+		long heap = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			usage.put(pool.getName(), new MemoryUsage(0, 1000, 1000, -1));
+			if (pool.getType() == MemoryType.HEAP) {
+				heap += 1000;
+			}
+		}
+
+		// Metaspace and the code cache are left out
+		assertEquals(heap, AdmissionController.heapUsed(usage));
+	}
+
+}
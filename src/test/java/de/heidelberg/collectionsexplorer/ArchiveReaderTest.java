@@ -0,0 +1,51 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test suite for reading java files from archives")
+public class ArchiveReaderTest {
+
+	@Test
+	public void testZipEntries() throws IOException {
+
+		File archive = File.createTempFile("3_33_project", ".zip");
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+			zip.putNextEntry(new ZipEntry("src/A.java"));
+			zip.write("class A {}".getBytes("utf-8"));
+			zip.putNextEntry(new ZipEntry("README.md"));
+			zip.write("readme".getBytes("utf-8"));
+			zip.closeEntry();
+		}
+
+		List<String> entries = new ArrayList<>();
+		ArchiveReader.readEntries(archive, ".java", (name, content) -> {
+			entries.add(name);
+			assertEquals("class A {}", new String(content, "utf-8"));
+		});
+
+		assertEquals(1, entries.size());
+		assertEquals(archive.getAbsolutePath() + "!/src/A.java", ArchiveReader.entryPath(archive, entries.get(0)));
+		assertTrue(ArchiveReader.projectId(archive).startsWith("3_33_project"));
+	}
+
+	@Test
+	public void testArchiveDetection() {
+		assertTrue(ArchiveReader.isArchive(new File("guava.tar.gz")));
+		assertTrue(ArchiveReader.isArchive(new File("guava-sources.jar")));
+		assertEquals("guava", ArchiveReader.projectId(new File("guava.tar.gz")));
+		assertEquals(false, ArchiveReader.isArchive(new File("A.java")));
+	}
+
+}
@@ -0,0 +1,50 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.beans.StringListInfo;
+import de.heidelberg.collectionsexplorer.context.ColumnarStore;
+
+@DisplayName("Test suite for the columnar result store")
+public class ColumnarStoreTest {
+
+	@Test
+	public void testRoundTrip() {
+
+		ObjectCreationInfo map = ObjectCreationInfo.builder().objectType("HashMap").lineNumber(4).columnNumber(8)
+				.argumentTypes(new StringListInfo(Arrays.asList("String", "Integer")))
+				.arguments(new StringListInfo(Arrays.asList("16"))).build();
+		map.setPath("A.java");
+		map.setProject("0_1_project");
+
+		ObjectCreationInfo list = ObjectCreationInfo.builder().objectType("ArrayList").lineNumber(9).build();
+		list.setPath("A.java");
+
+		ColumnarStore store = new ColumnarStore();
+		store.addAll(Arrays.asList(map, list));
+		assertEquals(2, store.size());
+
+		Iterator<GenericInfo> entries = store.entries();
+		ObjectCreationInfo first = (ObjectCreationInfo) entries.next();
+		assertEquals(map.toString(), first.toString());
+		assertEquals("A.java", first.getPath());
+		assertEquals("0_1_project", first.getProject());
+		assertEquals("[String, Integer]", first.getArgumentTypes().toString());
+
+		ObjectCreationInfo second = (ObjectCreationInfo) entries.next();
+		assertEquals(9, second.getLineNumber());
+		assertNull(second.getArgumentTypes());
+		assertNull(second.getProject());
+		assertEquals(false, entries.hasNext());
+	}
+
+}
@@ -0,0 +1,73 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.writer.Compression;
+
+@DisplayName("Test suite for the compressed reports")
+public class CompressionTest {
+
+	private byte[] report() throws IOException {
+		ByteArrayOutputStream report = new ByteArrayOutputStream();
+		for (int i = 0; i < 100000; i++) {
+			report.write(String.format("\"java.util.ArrayList\",\"%d\",\"/dataset/A%d.java\"%n", i, i % 97)
+					.getBytes("utf-8"));
+		}
+		return report.toByteArray();
+	}
+
+	private void writeAndRead(Compression compression, byte[] report) throws IOException {
+		File file = new File(Files.createTempDirectory("compressed").toFile(), "report.csv" + compression.extension);
+		assertEquals(compression, Compression.of(file));
+
+		try (OutputStream out = Compression.open(file)) {
+			// Written in pieces that do not align with the blocks
+			for (int off = 0; off < report.length; off += 7777) {
+				out.write(report, off, Math.min(7777, report.length - off));
+			}
+		}
+
+		try (InputStream in = compression == Compression.GZIP ? new GZIPInputStream(new FileInputStream(file))
+				: new FramedLZ4CompressorInputStream(new FileInputStream(file), true)) {
+			byte[] read = in.readAllBytes();
+			assertArrayEquals(report, read);
+		}
+	}
+
+	@Test
+	public void testGzipBlocks() throws IOException {
+		writeAndRead(Compression.GZIP, report());
+	}
+
+	@Test
+	public void testLz4Blocks() throws IOException {
+		writeAndRead(Compression.LZ4, report());
+	}
+
+	@Test
+	public void testEmptyReport() throws IOException {
+		writeAndRead(Compression.GZIP, new byte[0]);
+		writeAndRead(Compression.LZ4, new byte[0]);
+	}
+
+	@Test
+	public void testCodecNames() {
+		assertEquals(Compression.LZ4, Compression.of("lz4"));
+		assertEquals(Compression.NONE, Compression.of(new File("report.csv")));
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test suite for the packed corpus format")
+public class CorpusPackTest {
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+
+		File dir = Files.createTempDirectory("corpus").toFile();
+		File a = write(new File(dir, "A.java"), "class A {}");
+		File b = write(new File(dir, "B.java"), "class B { int b; }");
+		File fork = write(new File(dir, "Fork.java"), "class A {}");
+
+		Project first = new Project("0_1_first", dir);
+		first.add(a);
+		first.add(b);
+		Project second = new Project("1_2_second", dir);
+		second.add(fork);
+
+		File pack = new File(dir, "corpus.pack");
+		assertEquals(3, CorpusPack.write(pack, Arrays.asList(first, second)));
+
+		CorpusPack corpus = CorpusPack.open(pack);
+		List<CorpusPack.Entry> entries = corpus.getEntries();
+		assertEquals(3, entries.size());
+		assertEquals(b.getAbsolutePath(), entries.get(1).getPath());
+		assertEquals("class B { int b; }", new String(corpus.read(entries.get(1)), "utf-8"));
+		assertEquals("class A {}", new String(corpus.read(entries.get(2)), "utf-8"));
+		assertEquals(entries.get(0).getHash(), entries.get(2).getHash());
+		assertEquals(2, corpus.getEntriesByProject().size());
+	}
+
+	private File write(File file, String content) throws IOException {
+		Files.write(file.toPath(), content.getBytes("utf-8"));
+		return file;
+	}
+
+}
@@ -0,0 +1,101 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.beans.StringListInfo;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+import de.heidelberg.collectionsexplorer.writer.DatabaseWriter;
+
+@DisplayName("Test suite for the database sink")
+public class DatabaseWriterTest {
+
+	@Test
+	public void testLoadAndIndex() throws Exception {
+
+		List<ObjectCreationInfo> entries = new ArrayList<>();
+		for (int i = 0; i < 12000; i++) {
+			ObjectCreationInfo info = ObjectCreationInfo.builder().objectType(i % 3 == 0 ? "HashMap" : "ArrayList")
+					.fullObjectType("java.util.ArrayList").lineNumber(i)
+					.arguments(new StringListInfo(Arrays.asList("10"))).build();
+			info.setPath("A" + (i % 10) + ".java");
+			entries.add(info);
+		}
+
+		File database = new File(Files.createTempDirectory("db").toFile(), "results");
+		VisitorType type = VisitorType.OBJECT_CREATION;
+		try (DatabaseWriter writer = new DatabaseWriter(database)) {
+			assertEquals(12000, writer.writeInfo(type.name(), type.beanType, entries.iterator(), Columns.ALL,
+					"path", type.typeColumn));
+		}
+
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + database.getAbsolutePath())) {
+
+			ResultSet count = connection.createStatement()
+					.executeQuery("SELECT COUNT(*) FROM OBJECT_CREATION WHERE OBJECTTYPE = 'HashMap'");
+			count.next();
+			assertEquals(4000, count.getLong(1));
+
+			ResultSet row = connection.createStatement()
+					.executeQuery("SELECT ARGUMENTS, LINENUMBER FROM OBJECT_CREATION WHERE LINENUMBER = 42");
+			row.next();
+			assertEquals("[10]", row.getString(1));
+
+			ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, "OBJECT_CREATION", false, false);
+			List<String> indexed = new ArrayList<>();
+			while (indexes.next()) {
+				indexed.add(indexes.getString("COLUMN_NAME"));
+			}
+			assertTrue(indexed.containsAll(Arrays.asList("PATH", "FULLOBJECTTYPE")));
+		}
+	}
+
+	private ObjectCreationInfo entry(String path, String type) {
+		ObjectCreationInfo info = ObjectCreationInfo.builder().objectType(type).build();
+		info.setPath(path);
+		return info;
+	}
+
+	@Test
+	public void testReplaceRows() throws Exception {
+
+		String folder = "p" + File.separator + "a_b";
+		List<ObjectCreationInfo> entries = Arrays.asList(entry("A.java", "ArrayList"), entry("B.java", "HashMap"),
+				entry(folder + File.separator + "C.java", "HashSet"), entry("p" + File.separator + "aXb" + File.separator + "D.java", "TreeMap"));
+
+		File database = new File(Files.createTempDirectory("db").toFile(), "results");
+		VisitorType type = VisitorType.OBJECT_CREATION;
+		try (DatabaseWriter writer = new DatabaseWriter(database)) {
+			writer.writeInfo(type.name(), type.beanType, entries.iterator(), Columns.ALL, "path");
+
+			// A changed file and a deleted folder, whose name is not a pattern
+			assertEquals(4, writer.replaceRows(type.name(), type.beanType, "path", Arrays.asList("A.java", folder),
+					Arrays.asList(entry("A.java", "LinkedList"), entry("A.java", "TreeSet")).iterator(),
+					Columns.ALL));
+		}
+
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + database.getAbsolutePath())) {
+			ResultSet rows = connection.createStatement()
+					.executeQuery("SELECT OBJECTTYPE FROM OBJECT_CREATION ORDER BY OBJECTTYPE");
+			List<String> types = new ArrayList<>();
+			while (rows.next()) {
+				types.add(rows.getString(1));
+			}
+			assertEquals(Arrays.asList("HashMap", "LinkedList", "TreeMap", "TreeSet"), types);
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.context.Report;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+@DisplayName("Test suite for the File Processor")
+public class FileProcessorTest {
+
+	String classA = new String("package de.heidelberg.collectionsexplorer.examples;" + 
+			"import java.util.HashMap;" + 
+			"public class ClassA {" + 
+			"	private HashMap<String, Integer> map = new HashMap<String, Integer>(195);" + 
+			"}");
+
+	private File write(Path dataset, String project, String content) throws IOException {
+		Path file = dataset.resolve(project).resolve("ClassA.java");
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes("utf-8"));
+		return file.toFile();
+	}
+
+	@Test
+	public void testDuplicatedContent() throws IOException {
+
+		Path dataset = Files.createTempDirectory("dataset");
+		List<File> files = Arrays.asList(
+				write(dataset, "0_1_original", classA),
+				write(dataset, "1_2_fork", classA),
+				write(dataset, "2_3_other", classA.replace("195", "10")));
+
+		FileProcessor processor = new FileProcessor(Filter.NO_FILTER);
+		processor.addVisitorContext(VisitorType.OBJECT_CREATION);
+		processor.process(files);
+
+		Report report = processor.getAllVisitorContexts().get(VisitorType.OBJECT_CREATION).getReport();
+		assertEquals(3, report.getResults().size());
+
+		Set<String> projects = report.getResults().stream()
+				.flatMap(r -> r.getEntries().stream())
+				.map(GenericInfo::getProject)
+				.collect(Collectors.toSet());
+		assertEquals(3, projects.size());
+
+		assertEquals(1.0 / 3, processor.getDuplicateRatio(), 0.001);
+	}
+
+	@Test
+	public void testStoreDoesNotKeepResults() throws IOException {
+
+		Path dataset = Files.createTempDirectory("dataset");
+		List<File> files = Arrays.asList(
+				write(dataset, "0_1_original", classA),
+				write(dataset, "1_2_fork", classA),
+				write(dataset, "2_3_other", classA.replace("195", "10")));
+
+		FileProcessor processor = new FileProcessor(Filter.NO_FILTER);
+		processor.setSortedOutput(100);
+		processor.addVisitorContext(VisitorType.OBJECT_CREATION);
+		processor.process(files);
+
+		// Every entry reaches the store, none is left behind for the duplicates
+		assertEquals(3, processor.getAllVisitorContexts().get(VisitorType.OBJECT_CREATION).getReport().getStore()
+				.size());
+		assertTrue(processor.resultsByContent.isEmpty());
+	}
+
+	@Test
+	public void testColumnarDoesNotKeepBeans() throws IOException {
+
+		Path dataset = Files.createTempDirectory("dataset");
+		List<File> files = Arrays.asList(
+				write(dataset, "0_1_original", classA),
+				write(dataset, "1_2_fork", classA));
+
+		FileProcessor processor = new FileProcessor(Filter.NO_FILTER);
+		processor.setColumnarOutput();
+		processor.addVisitorContext(VisitorType.OBJECT_CREATION);
+		processor.processProjects(ProjectResolver.resolve(files, dataset.toFile()));
+
+		// Only the columns hold the entries, the beans are not kept for the duplicates
+		assertEquals(2, processor.getAllVisitorContexts().get(VisitorType.OBJECT_CREATION).getReport().getStore()
+				.size());
+		assertTrue(processor.resultsByContent.isEmpty());
+	}
+
+	@Test
+	public void testLargestFirst() throws IOException {
+
+		FileProcessor processor = new FileProcessor(Filter.NO_FILTER);
+		processor.setThreads(1);
+
+		List<Integer> order = new ArrayList<>();
+		processor.processEach("Test", Arrays.asList(1, 30, 2, 10), Integer::longValue, order::add);
+
+		// A single worker runs the largest items first
+		assertEquals(Arrays.asList(30, 10, 2, 1), order);
+		assertEquals(true, processor.getTailSeconds() <= processor.getElapsedSeconds());
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test suite for reading java files from git revisions")
+public class GitReaderTest {
+
+	@Test
+	public void testReadPreviousRevision() throws IOException, GitAPIException {
+
+		File dir = Files.createTempDirectory("4_44_project").toFile();
+		File source = new File(dir, "src/A.java");
+		source.getParentFile().mkdirs();
+
+		try (Git git = Git.init().setDirectory(dir).call()) {
+			Files.write(source.toPath(), "class A {}".getBytes("utf-8"));
+			git.add().addFilepattern(".").call();
+			git.commit().setMessage("first").setAuthor("a", "a@a").setCommitter("a", "a@a").call();
+
+			// The working tree and HEAD no longer match the first revision
+			Files.write(source.toPath(), "class B {}".getBytes("utf-8"));
+			git.add().addFilepattern(".").call();
+			git.commit().setMessage("second").setAuthor("a", "a@a").setCommitter("a", "a@a").call();
+		}
+
+		List<String> paths = new ArrayList<>();
+		String commit = GitReader.readRevision(dir, "HEAD~1", ".java", (path, content) -> {
+			paths.add(path);
+			assertEquals("class A {}", new String(content, "utf-8"));
+		});
+
+		assertTrue(GitReader.isRepository(dir));
+		assertEquals(1, paths.size());
+		assertEquals(GitReader.revisionPath(dir, commit, "src/A.java"), paths.get(0));
+	}
+
+}
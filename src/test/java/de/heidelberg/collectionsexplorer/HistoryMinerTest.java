@@ -0,0 +1,59 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.beans.TypeEvolutionInfo;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+@DisplayName("Test suite for mining the history of git repositories")
+public class HistoryMinerTest {
+
+	@Test
+	public void testChangesPerCommit() throws IOException, GitAPIException {
+
+		File dir = Files.createTempDirectory("5_55_project").toFile();
+		File source = new File(dir, "A.java");
+
+		try (Git git = Git.init().setDirectory(dir).call()) {
+			commit(git, source, "import java.util.*; class A { void m() { new ArrayList<>(); new HashSet<>(); } }");
+			// HashSet moves down a line and is not a change, ArrayList is replaced
+			commit(git, source, "import java.util.*; class A { void m() {\n new LinkedList<>(); new HashSet<>(); } }");
+		}
+
+		FileProcessor processor = new FileProcessor(new Filter());
+		processor.addVisitorContext(VisitorType.OBJECT_CREATION);
+		HistoryMiner miner = new HistoryMiner(processor);
+		miner.mine(dir, "HEAD");
+
+		List<GenericInfo> added = miner.getAdded(VisitorType.OBJECT_CREATION);
+		List<GenericInfo> removed = miner.getRemoved(VisitorType.OBJECT_CREATION);
+		assertEquals(3, added.size());
+		assertEquals(1, removed.size());
+		assertEquals("java.util.ArrayList", ((ObjectCreationInfo) removed.get(0)).getFullObjectType());
+
+		List<TypeEvolutionInfo> evolution = miner.getEvolution();
+		TypeEvolutionInfo last = evolution.get(evolution.size() - 1);
+		assertEquals("java.util.LinkedList", last.getType());
+		assertEquals(1, last.getAdded());
+		assertEquals(1, last.getNetChange());
+	}
+
+	private void commit(Git git, File source, String content) throws IOException, GitAPIException {
+		Files.write(source.toPath(), content.getBytes("utf-8"));
+		git.add().addFilepattern(".").call();
+		git.commit().setMessage("change").setAuthor("a", "a@a").setCommitter("a", "a@a").call();
+	}
+
+}
@@ -0,0 +1,59 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import de.heidelberg.collectionsexplorer.context.ImportIndex;
+
+@DisplayName("Test suite for the import index")
+public class ImportIndexTest {
+
+	String classA = new String("package de.heidelberg.collectionsexplorer.examples;" + 
+			"import java.util.*;" + 
+			"import java.util.concurrent.ConcurrentHashMap;" + 
+			"import com.google.common.collect.*;" + 
+			"public class ClassA {" + 
+			"	class Inner {}" + 
+			"}");
+
+	String classB = new String("package de.heidelberg.collectionsexplorer.examples;" + 
+			"import java.util.*;" + 
+			"import org.unknown.*;" + 
+			"public class ClassB {" + 
+			"}");
+
+	@Test
+	public void testQualifiedNames() {
+
+		CompilationUnit compilationUnit = StaticJavaParser.parse(classA);
+		ImportIndex index = ImportIndex.of(compilationUnit);
+
+		assertSame(index, ImportIndex.of(compilationUnit));
+
+		assertEquals("java.util.HashMap", index.qualify("HashMap"));
+		assertEquals("java.util.Map.Entry", index.qualify("Map.Entry"));
+		assertEquals("java.util.concurrent.ConcurrentHashMap", index.qualify("ConcurrentHashMap"));
+		assertEquals("com.google.common.collect.ImmutableList", index.qualify("ImmutableList"));
+		assertEquals("java.lang.String", index.qualify("String"));
+		assertEquals("de.heidelberg.collectionsexplorer.examples.ClassA.Inner", index.qualify("Inner"));
+		assertEquals("de.heidelberg.collectionsexplorer.examples.ClassC", index.qualify("ClassC"));
+		assertEquals("java.util.LinkedList", index.qualify("java.util.LinkedList"));
+	}
+
+	@Test
+	public void testUnknownOnDemandImport() {
+
+		ImportIndex index = ImportIndex.of(StaticJavaParser.parse(classB));
+
+		assertEquals("java.util.ArrayList", index.qualify("ArrayList"));
+		// Could be declared in org.unknown or in the same package
+		assertEquals("ClassC", index.qualify("ClassC"));
+	}
+
+}
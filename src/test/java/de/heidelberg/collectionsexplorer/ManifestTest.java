@@ -0,0 +1,69 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.OutputFileInfo;
+import de.heidelberg.collectionsexplorer.writer.CsvWriter;
+import de.heidelberg.collectionsexplorer.writer.Manifest;
+
+@DisplayName("Test suite for the partitioned export and its manifest")
+public class ManifestTest {
+
+	@Test
+	public void testPartFileName() {
+		assertEquals("obj-creation-part-00000.csv", CollectionsExplorer.partFileName("obj-creation.csv", 0));
+		assertEquals("obj-creation-part-00012.csv", CollectionsExplorer.partFileName("obj-creation.csv", 12));
+	}
+
+	@Test
+	public void testLimit() {
+		Iterator<Integer> entries = Arrays.asList(1, 2, 3, 4, 5).iterator();
+
+		Iterator<Integer> first = CollectionsExplorer.limit(entries, 2);
+		assertEquals(1, (int) first.next());
+		assertEquals(2, (int) first.next());
+		assertFalse(first.hasNext());
+
+		// The next part starts where the previous one stopped
+		Iterator<Integer> second = CollectionsExplorer.limit(entries, 2);
+		assertEquals(3, (int) second.next());
+	}
+
+	@Test
+	public void testManifest() throws Exception {
+
+		Path out = Files.createTempDirectory("manifest");
+		List<OutputFileInfo> rows = Arrays.asList(
+				OutputFileInfo.builder().report("A").part(0).file("a.csv").build(),
+				OutputFileInfo.builder().report("A").part(1).file("b.csv").build());
+
+		File part = out.resolve("part.csv").toFile();
+		Manifest manifest = new Manifest();
+		manifest.add("OBJECT_CREATION", 1, part, CsvWriter.writeInfo(part, rows));
+		manifest.add("OBJECT_CREATION", 0, part, CsvWriter.writeInfo(part, rows.iterator()));
+
+		List<OutputFileInfo> files = manifest.getFiles();
+		assertEquals(0, files.get(0).getPart());
+		assertEquals(2, files.get(1).getRows());
+		assertEquals(part.length(), files.get(1).getBytes());
+
+		File manifestFile = out.resolve(Manifest.MANIFEST_FILE).toFile();
+		manifest.write(manifestFile);
+
+		// Header plus one line per file, and no temporary file left behind
+		assertEquals(3, Files.readAllLines(manifestFile.toPath()).size());
+		assertFalse(new File(manifestFile.getPath() + ".tmp").exists());
+	}
+
+}
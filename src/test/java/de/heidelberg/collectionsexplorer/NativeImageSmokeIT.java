@@ -0,0 +1,62 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import picocli.CommandLine;
+
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+import de.heidelberg.collectionsexplorer.writer.Manifest;
+
+/**
+ * Run by the failsafe plugin of the <code>native</code> profile, once the
+ * native executable is built.
+ */
+@DisplayName("Smoke test of the native executable")
+public class NativeImageSmokeIT {
+
+	private static final String FIXTURES = "src/test/resources/de/heidelberg/collectionsexplorer/examples";
+
+	@Test
+	public void testSameReportsAsJvm() throws Exception {
+
+		String executable = System.getProperty("native.executable");
+		assumeTrue(executable != null && new File(executable).canExecute(), "No native executable built");
+
+		Path out = Files.createTempDirectory("native-smoke");
+		String input = new File(FIXTURES).getAbsolutePath();
+
+		CommandLine.call(new CollectionsExplorer(), input, "-new", "-var", "-import", "-stream", "-out",
+				out.resolve("jvm-").toString());
+
+		Process process = new ProcessBuilder(executable, input, "-new", "-var", "-import", "-stream", "-out",
+				out.resolve("native-").toString()).inheritIO().start();
+		assertEquals(true, process.waitFor(2, TimeUnit.MINUTES));
+		assertEquals(0, process.exitValue());
+
+		for (VisitorType type : VisitorType.values()) {
+			List<String> jvm = Files.readAllLines(out.resolve("jvm-" + type.outputFile));
+			List<String> nativeImage = Files.readAllLines(out.resolve("native-" + type.outputFile));
+			assertEquals(jvm, nativeImage, type.outputFile);
+		}
+
+		// Same files listed, with the same rows and sizes
+		List<String> jvmManifest = Files.readAllLines(out.resolve("jvm-" + Manifest.MANIFEST_FILE)).stream()
+				.map(line -> line.replace(out.resolve("jvm-").toString(), out.resolve("native-").toString()))
+				.collect(Collectors.toList());
+		List<String> nativeManifest = Files.readAllLines(out.resolve("native-" + Manifest.MANIFEST_FILE));
+		assertEquals(VisitorType.values().length + 1, nativeManifest.size());
+		assertEquals(jvmManifest, nativeManifest);
+	}
+
+}
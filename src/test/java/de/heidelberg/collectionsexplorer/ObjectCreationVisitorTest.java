@@ -2,17 +2,19 @@ package de.heidelberg.collectionsexplorer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import com.github.javaparser.JavaParser;
+import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 
 import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
 import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.SourceText;
 import de.heidelberg.collectionsexplorer.visitors.ObjectCreationVisitor;
 
 @DisplayName("Test suite for Object Creation Visitor")
@@ -28,13 +30,25 @@ public class ObjectCreationVisitorTest {
 			"	private Map<String, Integer> map3 = new HashMap(map);" +
 			"}");
 	
+	String classNested = new String("package de.heidelberg.collectionsexplorer.examples;" + 
+			"import java.util.ArrayList;" + 
+			"public class Outer {" + 
+			"	class Inner {" + 
+			"		void method() {" + 
+			"			Runnable r = new Runnable() {" + 
+			"				public void run() { new ArrayList<String>(); }" + 
+			"			};" + 
+			"		}" + 
+			"	}" + 
+			"	Outer() { new ArrayList<Integer>(); }" + 
+			"}");
 			
 	@Test
 	public void testSimpleObjectCreation() {
 
 		try {
 
-			CompilationUnit compilationUnit = JavaParser.parse(classA);
+			CompilationUnit compilationUnit = StaticJavaParser.parse(classA);
 			Result<ObjectCreationInfo> result = new Result<>("");
 			compilationUnit.accept(new ObjectCreationVisitor(Filter.NO_FILTER), result);
 
@@ -43,7 +57,7 @@ public class ObjectCreationVisitorTest {
 			ObjectCreationInfo integer = result.getEntries().get(0);
 			assertEquals("ClassA", integer.getClassName());
 			assertEquals("Integer", integer.getObjectType());
-			assertEquals("Integer", integer.getFullObjectType());
+			assertEquals("java.lang.Integer", integer.getFullObjectType());
 			assertEquals("2", integer.getArguments().getListedInfo().get(0));
 			assertTrue(integer.getArgumentTypes().getListedInfo().isEmpty());
 
@@ -69,12 +83,89 @@ public class ObjectCreationVisitorTest {
 
 	}
 	
+	@Test
+	public void testProjectedColumns() {
+
+		CompilationUnit compilationUnit = StaticJavaParser.parse(classA);
+		Result<ObjectCreationInfo> result = new Result<>("");
+		compilationUnit.accept(new ObjectCreationVisitor(Filter.NO_FILTER, Columns.of("objectType", "lineNumber")), result);
+
+		assertEquals(4, result.getEntries().size());
+
+		// Columns not requested are not computed
+		ObjectCreationInfo map = result.getEntries().get(1);
+		assertEquals("HashMap", map.getObjectType());
+		assertNull(map.getArguments());
+		assertNull(map.getArgumentTypes());
+		assertNull(map.getFullObjectType());
+	}
+	
+	@Test
+	public void testArgumentsAsWritten() {
+
+		String code = "class A {\r\n\tObject a = new Integer(1+  2);\n\tObject b = new HashMap<>(\n\t\tmap);\n}";
+		CompilationUnit compilationUnit = StaticJavaParser.parse(code);
+		SourceText.attach(compilationUnit, code);
+		Result<ObjectCreationInfo> result = new Result<>("");
+		compilationUnit.accept(new ObjectCreationVisitor(Filter.NO_FILTER), result);
+
+		// Sliced from the source instead of pretty-printed
+		assertEquals("1+  2", result.getEntries().get(0).getArguments().getListedInfo().get(0));
+		assertEquals("map", result.getEntries().get(1).getArguments().getListedInfo().get(0));
+	}
+	
+	@Test
+	public void testEnclosingScope() {
+
+		CompilationUnit compilationUnit = StaticJavaParser.parse(classNested);
+		Result<ObjectCreationInfo> result = new Result<>("");
+		compilationUnit.accept(new ObjectCreationVisitor(Filter.NO_FILTER), result);
+
+		assertEquals(3, result.getEntries().size());
+
+		ObjectCreationInfo runnable = result.getEntries().get(0);
+		assertEquals("Inner", runnable.getClassName());
+		assertEquals("de.heidelberg.collectionsexplorer.examples.Outer$Inner", runnable.getQualifiedClassName());
+		assertEquals("method", runnable.getMethodName());
+
+		ObjectCreationInfo anonymous = result.getEntries().get(1);
+		assertEquals("Inner", anonymous.getClassName());
+		assertEquals("de.heidelberg.collectionsexplorer.examples.Outer$Inner$1", anonymous.getQualifiedClassName());
+		assertEquals("run", anonymous.getMethodName());
+
+		ObjectCreationInfo constructor = result.getEntries().get(2);
+		assertEquals("de.heidelberg.collectionsexplorer.examples.Outer", constructor.getQualifiedClassName());
+		assertEquals("<init>", constructor.getMethodName());
+	}
+	
+	@Test
+	public void testLocalClassNames() {
+
+		CompilationUnit compilationUnit = StaticJavaParser.parse("package pkg;" +
+				"public class Outer {" +
+				"	void first() {" +
+				"		class Local { Object o = new Object(); }" +
+				"		class Other { Object o = new Object(); }" +
+				"	}" +
+				"	void second() {" +
+				"		class Local { Object o = new Object(); }" +
+				"	}" +
+				"}");
+		Result<ObjectCreationInfo> result = new Result<>("");
+		compilationUnit.accept(new ObjectCreationVisitor(Filter.NO_FILTER), result);
+
+		// Numbered per simple name, like the class files javac writes
+		assertEquals("pkg.Outer$1Local", result.getEntries().get(0).getQualifiedClassName());
+		assertEquals("pkg.Outer$1Other", result.getEntries().get(1).getQualifiedClassName());
+		assertEquals("pkg.Outer$2Local", result.getEntries().get(2).getQualifiedClassName());
+	}
+	
 	@Test
 	public void testFilter() {
 		
 		try {
 			
-			CompilationUnit compilationUnit = JavaParser.parse(classA);
+			CompilationUnit compilationUnit = StaticJavaParser.parse(classA);
 			Result<ObjectCreationInfo> result = new Result<>("");
 			
 			Filter filter = new Filter();
@@ -0,0 +1,55 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test suite for the project detection")
+public class ProjectResolverTest {
+
+	File dataset = new File("dataset");
+
+	@Test
+	public void testDatasetLayout() {
+
+		List<File> files = Arrays.asList(
+				new File(dataset, "0_1234_guava/src/main/java/A.java"),
+				new File(dataset, "1_5678_commons/B.java"),
+				new File(dataset, "0_1234_guava/src/test/java/C.java"));
+
+		List<Project> projects = ProjectResolver.resolve(files, dataset);
+
+		assertEquals(2, projects.size());
+		assertEquals("0_1234_guava", projects.get(0).getId());
+		assertEquals(2, projects.get(0).getFiles().size());
+		assertEquals("1_5678_commons", projects.get(1).getId());
+		assertEquals(new File(dataset, "1_5678_commons").getAbsoluteFile(), projects.get(1).getRoot());
+	}
+
+	@Test
+	public void testInputDirectoryAsProject() {
+
+		File input = new File("some-repository");
+		List<File> files = Arrays.asList(new File(input, "src/A.java"), new File(input, "B.java"));
+
+		List<Project> projects = ProjectResolver.resolve(files, input);
+
+		assertEquals(1, projects.size());
+		assertEquals("some-repository", projects.get(0).getId());
+	}
+
+	@Test
+	public void testListedFilesWithoutProject() {
+
+		List<Project> projects = ProjectResolver.resolve(Arrays.asList(new File("/tmp/A.java")), null);
+
+		assertEquals(1, projects.size());
+		assertEquals(Project.UNKNOWN_ID, projects.get(0).getId());
+	}
+
+}
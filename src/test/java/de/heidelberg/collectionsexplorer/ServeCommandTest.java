@@ -0,0 +1,28 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test suite for the server mode")
+public class ServeCommandTest {
+
+	@Test
+	public void testJobArguments() {
+		assertArrayEquals(new String[] { "dataset/0_1_guava", "-new", "-out", "guava-" },
+				ServeCommand.split("  dataset/0_1_guava -new\t-out guava-  "));
+		assertArrayEquals(new String[] { "dataset", "-filter", ".*List<.*>|.*Map", "-filter", "" },
+				ServeCommand.split("dataset -filter \".*List<.*>|.*Map\" -filter \"\""));
+	}
+
+	@Test
+	public void testFailedJobs() {
+		ServeCommand server = new ServeCommand();
+		assertEquals("error -watch is not supported in server jobs", server.run("dataset -watch"));
+		assertTrue(server.run("dataset -compress rar").startsWith("error "));
+	}
+
+}
@@ -0,0 +1,71 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.sketch.CountMinSketch;
+import de.heidelberg.collectionsexplorer.sketch.HyperLogLog;
+import de.heidelberg.collectionsexplorer.sketch.TopK;
+
+@DisplayName("Test suite for the streaming sketches")
+public class SketchTest {
+
+	@Test
+	public void testCountMinNeverUnderestimates() {
+
+		CountMinSketch sketch = new CountMinSketch(0.001, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			sketch.add("Type" + (i % 100), 1);
+		}
+
+		for (int i = 0; i < 100; i++) {
+			long estimate = sketch.estimate("Type" + i);
+			assertTrue(estimate >= 10);
+			assertTrue(estimate <= 10 + sketch.getErrorBound());
+		}
+		assertEquals(1000, sketch.getTotal());
+	}
+
+	@Test
+	public void testDistinctCount() {
+
+		HyperLogLog first = new HyperLogLog(12);
+		HyperLogLog second = new HyperLogLog(12);
+		for (int i = 0; i < 10000; i++) {
+			first.add("Type" + i);
+			second.add("Type" + (i + 5000));
+		}
+		first.merge(second);
+
+		// 3 standard errors
+		assertEquals(15000, first.estimate(), 15000 * 3 * first.getRelativeError());
+	}
+
+	@Test
+	public void testMergedTopK() {
+
+		TopK first = new TopK(2, 0.001, 0.01);
+		TopK second = new TopK(2, 0.001, 0.01);
+		for (int i = 0; i < 100; i++) {
+			first.add("ArrayList");
+			second.add("HashMap");
+			first.add("Type" + i);
+		}
+		for (int i = 0; i < 60; i++) {
+			second.add("ArrayList");
+		}
+		first.merge(second);
+
+		List<Entry<String, Long>> top = first.getTop();
+		assertEquals("ArrayList", top.get(0).getKey());
+		assertEquals(160, top.get(0).getValue(), first.getErrorBound());
+		assertEquals("HashMap", top.get(1).getKey());
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.GenericInfo;
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.context.SortedSpillStore;
+
+@DisplayName("Test suite for the sorted spill-to-disk store")
+public class SortedSpillStoreTest {
+
+	private ObjectCreationInfo entry(String path, int line) {
+		ObjectCreationInfo info = ObjectCreationInfo.builder().objectType("ArrayList").lineNumber(line).build();
+		info.setPath(path);
+		return info;
+	}
+
+	@Test
+	public void testMergeSortedRuns() throws IOException {
+
+		SortedSpillStore store = new SortedSpillStore(2);
+		store.addAll(Arrays.asList(entry("B.java", 7), entry("A.java", 9)));
+		store.addAll(Arrays.asList(entry("A.java", 3)));
+		store.addAll(Arrays.asList(entry("C.java", 1), entry("A.java", 12)));
+		store.addAll(Arrays.asList(entry("B.java", 2)));
+
+		assertEquals(2, store.getRuns());
+		assertEquals(6, store.size());
+
+		List<String> sorted = new ArrayList<>();
+		for (Iterator<GenericInfo> it = store.entries(); it.hasNext();) {
+			ObjectCreationInfo info = (ObjectCreationInfo) it.next();
+			sorted.add(info.getPath() + ":" + info.getLineNumber());
+			assertEquals("ArrayList", info.getObjectType());
+		}
+
+		assertEquals(Arrays.asList("A.java:3", "A.java:9", "A.java:12", "B.java:2", "B.java:7", "C.java:1"), sorted);
+	}
+
+}
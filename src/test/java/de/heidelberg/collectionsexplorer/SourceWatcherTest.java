@@ -0,0 +1,82 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.context.Report;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+@DisplayName("Test suite for the watch mode")
+public class SourceWatcherTest {
+
+	private Path write(Path file, String... creations) throws IOException {
+		StringBuilder body = new StringBuilder();
+		for (String creation : creations) {
+			body.append("Object o").append(body.length()).append(" = new ").append(creation).append("();");
+		}
+		Files.createDirectories(file.getParent());
+		return Files.write(file, ("import java.util.*; public class A {" + body + "}").getBytes("utf-8"));
+	}
+
+	private List<String> types(Report report) {
+		return report.getResults().stream().flatMap(r -> r.getEntries().stream())
+				.map(e -> ((ObjectCreationInfo) e).getObjectType()).sorted()
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testApplyChanges() throws IOException {
+
+		Path dataset = Files.createTempDirectory("dataset");
+		Path a = write(dataset.resolve("0_1_first/A.java"), "ArrayList");
+		Path b = write(dataset.resolve("1_2_second/pkg/B.java"), "HashMap");
+
+		FileProcessor processor = new FileProcessor(Filter.NO_FILTER);
+		processor.addVisitorContext(VisitorType.OBJECT_CREATION);
+		processor.process(Arrays.asList(a.toFile(), b.toFile()));
+		Report report = processor.getAllVisitorContexts().get(VisitorType.OBJECT_CREATION).getReport();
+
+		try (SourceWatcher watcher = new SourceWatcher(processor)) {
+			watcher.register(dataset.toFile());
+
+			// Modified and created files replace their results
+			write(a, "LinkedList", "TreeMap");
+			Path c = write(dataset.resolve("1_2_second/pkg/C.java"), "HashSet");
+			assertEquals(2, watcher.apply(new HashSet<>(Arrays.asList(a, c))).size());
+			// One parser per project, kept for the next changes
+			assertEquals(2, watcher.parsers.size());
+			assertEquals(Arrays.asList("HashMap", "HashSet", "LinkedList", "TreeMap"), types(report));
+			assertEquals("1_2_second", report.getResults().stream().filter(r -> r.getFilePath().endsWith("C.java"))
+					.findFirst().get().getProject());
+
+			// A file that does not parse keeps its previous results
+			Files.write(a, "public class A {".getBytes("utf-8"));
+			assertEquals(0, watcher.apply(Collections.singleton(a)).size());
+			assertEquals(3, report.getResults().size());
+			assertEquals(2, watcher.parsers.size());
+
+			// Deleted files and folders are retracted
+			Files.delete(a);
+			assertEquals(1, watcher.apply(Collections.singleton(a)).size());
+			Files.delete(b);
+			Files.delete(c);
+			Files.delete(c.getParent());
+			assertEquals(Collections.singleton(c.getParent().toFile().getAbsolutePath()),
+					watcher.apply(Collections.singleton(c.getParent())));
+			assertEquals(0, report.getResults().size());
+		}
+	}
+
+}
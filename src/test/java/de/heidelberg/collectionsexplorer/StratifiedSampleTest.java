@@ -0,0 +1,110 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.EstimateInfo;
+import de.heidelberg.collectionsexplorer.beans.ImportDeclarationInfo;
+import de.heidelberg.collectionsexplorer.context.Report;
+import de.heidelberg.collectionsexplorer.context.Result;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+@DisplayName("Test suite for the stratified sampling mode")
+public class StratifiedSampleTest {
+
+	private Project project(String id, int files) {
+		Project project = new Project(id, null);
+		for (int i = 0; i < files; i++) {
+			project.add(new File(id, "F" + i + ".java"));
+		}
+		return project;
+	}
+
+	@Test
+	public void testSampleIsStratifiedAndReproducible() {
+
+		List<Project> projects = Arrays.asList(project("0_1_a", 10), project("1_2_b", 3));
+		StratifiedSample sample = StratifiedSample.draw(projects, 0.5, 7);
+
+		assertEquals(13, sample.getPopulationSize());
+		assertEquals(5 + 2, sample.getSampleSize());
+		// At least two files per project, all of a smaller one
+		assertEquals(2 + 2 + 1,
+				StratifiedSample.draw(Arrays.asList(projects.get(0), projects.get(1), project("2_3_c", 1)), 0.01, 7)
+						.getSampleSize());
+		assertEquals(sample.getProjects().get(0).getFiles(),
+				StratifiedSample.draw(projects, 0.5, 7).getProjects().get(0).getFiles());
+	}
+
+	@Test
+	public void testCompleteSampleIsExact() {
+
+		StratifiedSample sample = StratifiedSample.draw(Arrays.asList(project("0_1_a", 2)), 1.0, 7);
+
+		Report report = new Report();
+		for (String[] imports : new String[][] { { "java.util.List", "java.util.Map" }, { "java.util.List" } }) {
+			Result<ImportDeclarationInfo> result = new Result<>("F.java", "0_1_a");
+			for (String imported : imports) {
+				result.add(ImportDeclarationInfo.builder().packageImported(imported).build());
+			}
+			report.add(result);
+		}
+
+		List<EstimateInfo> estimates = sample.estimate(VisitorType.IMPORT_DECLARATION, report);
+		assertEquals(StratifiedSample.ALL_TYPES, estimates.get(0).getType());
+		assertEquals(3, estimates.get(0).getEstimatedCount(), 0.001);
+
+		EstimateInfo list = estimates.get(1);
+		assertEquals("java.util.List", list.getType());
+		assertEquals(2, list.getEstimatedCount(), 0.001);
+		assertEquals(2, list.getEstimatedCountHigh(), 0.001);
+		assertEquals(2.0 / 3, list.getProportion(), 0.001);
+	}
+
+	@Test
+	public void testSmallStratumInterval() {
+
+		// Files with 1, 2 and 3 imports, 6 in total: any two of them bound it
+		Project project = project("0_1_a", 3);
+		for (long seed = 0; seed < 10; seed++) {
+			StratifiedSample sample = StratifiedSample.draw(Arrays.asList(project), 0.1, seed);
+
+			Report report = new Report();
+			for (File file : sample.getProjects().get(0).getFiles()) {
+				Result<ImportDeclarationInfo> result = new Result<>(file.getPath(), "0_1_a");
+				int imports = Integer.parseInt(file.getName().replaceAll("\\D", "")) + 1;
+				for (int i = 0; i < imports; i++) {
+					result.add(ImportDeclarationInfo.builder().packageImported("java.util.List").build());
+				}
+				report.add(result);
+			}
+
+			EstimateInfo all = sample.estimate(VisitorType.IMPORT_DECLARATION, report).get(0);
+			assertEquals(2, all.getSampledFiles());
+			assertTrue(all.getEstimatedCountLow() < 6 && 6 < all.getEstimatedCountHigh(), all.toString());
+		}
+	}
+
+	@Test
+	public void testEmptySample() {
+
+		StratifiedSample sample = StratifiedSample.draw(Arrays.asList(project("0_1_a", 4)), 0.5, 7);
+
+		Report report = new Report();
+		report.add(new Result<ImportDeclarationInfo>("F.java", "0_1_a"));
+
+		// Bounds of zero rather than NaN
+		EstimateInfo all = sample.estimate(VisitorType.IMPORT_DECLARATION, report).get(0);
+		assertEquals(0, all.getEstimatedCount(), 0.001);
+		assertEquals(0, all.getProportionLow(), 0.001);
+		assertEquals(0, all.getProportionHigh(), 0.001);
+	}
+
+}
@@ -11,6 +11,7 @@ import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
@@ -45,9 +46,9 @@ public class StreamAPIUsageTest {
 
 			// Configure JavaParser to use type resolution
 			JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedTypeSolver);
-			JavaParser.getStaticConfiguration().setSymbolResolver(symbolSolver);
+			StaticJavaParser.getConfiguration().setSymbolResolver(symbolSolver);
 
-			CompilationUnit compilationUnit = JavaParser.parse(classA);
+			CompilationUnit compilationUnit = StaticJavaParser.parse(classA);
 			Result<StreamOperationsInfo> result = new Result<>("");
 
 			compilationUnit.accept(new StreamAPIUsageVisitor(Filter.NO_FILTER), result);
@@ -68,6 +69,34 @@ public class StreamAPIUsageTest {
 		}
 	}
 	
+	@Test
+	public void localSourceTypeInference() {
+
+		String classB = new String("package de.heidelberg.collectionsexplorer.examples;" 
+				+ "import java.util.*;"
+				+ "public class ClassB {"
+				+ "	private Map<String, List<Integer>> map = new HashMap<>();" 
+				+ "   private long method(Set<String> names) {"
+				+ "   	var list = new ArrayList<String>();"
+				+ "   	list.stream().count();"
+				+ "   	names.parallelStream().count();"
+				+ "   	return this.map.entrySet().stream().count();"
+				+ "	 }" 
+				+ "}");
+
+		// Parser without any symbol solver configured
+		CompilationUnit compilationUnit = new JavaParser().parse(classB).getResult().get();
+		Result<StreamOperationsInfo> result = new Result<>("");
+
+		compilationUnit.accept(new StreamAPIUsageVisitor(Filter.NO_FILTER), result);
+
+		assertEquals(3, result.getEntries().size());
+		assertEquals("java.util.ArrayList<java.lang.String>", result.getEntries().get(0).getSourceType());
+		assertEquals("java.util.Set<java.lang.String>", result.getEntries().get(1).getSourceType());
+		assertEquals("java.util.Set<java.util.Map.Entry<java.lang.String, java.util.List<java.lang.Integer>>>",
+				result.getEntries().get(2).getSourceType());
+	}
+	
 
 
 
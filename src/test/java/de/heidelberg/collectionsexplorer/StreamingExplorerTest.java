@@ -0,0 +1,142 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.heidelberg.collectionsexplorer.beans.ObjectCreationInfo;
+import de.heidelberg.collectionsexplorer.context.VisitorType;
+
+@DisplayName("Test suite for the streaming library API")
+public class StreamingExplorerTest {
+
+	private static final int FILES = 20;
+
+	private Path dataset() throws Exception {
+		Path dataset = Files.createTempDirectory("dataset");
+		Path project = Files.createDirectories(dataset.resolve("0_1_project"));
+		for (int i = 0; i < FILES; i++) {
+			Files.write(project.resolve("Class" + i + ".java"), ("import java.util.*;" + "public class Class" + i
+					+ " {" + "	List<String> a = new ArrayList<>();" + "	Map<String, Integer> b = new HashMap<>(" + i
+					+ ");" + "}").getBytes("utf-8"));
+		}
+		return dataset;
+	}
+
+	/**
+	 * Requests one entry at a time and cancels after the given number of them.
+	 */
+	private static class OneByOne implements Flow.Subscriber<ObjectCreationInfo> {
+
+		final List<ObjectCreationInfo> received = new CopyOnWriteArrayList<>();
+		final CountDownLatch completed = new CountDownLatch(1);
+		final int cancelAfter;
+		Flow.Subscription subscription;
+
+		OneByOne(int cancelAfter) {
+			this.cancelAfter = cancelAfter;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(ObjectCreationInfo item) {
+			received.add(item);
+			if (received.size() == cancelAfter) {
+				subscription.cancel();
+				completed.countDown();
+			} else {
+				subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			completed.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed.countDown();
+		}
+	}
+
+	@Test
+	public void testPublishEveryEntry() throws Exception {
+
+		StreamingExplorer explorer = new StreamingExplorer(Filter.NO_FILTER);
+		explorer.setThreads(2);
+		explorer.setBufferSize(1);
+
+		OneByOne subscriber = new OneByOne(-1);
+		explorer.publisher(VisitorType.OBJECT_CREATION, ObjectCreationInfo.class).subscribe(subscriber);
+		explorer.start(Arrays.asList(dataset().toFile())).get(1, TimeUnit.MINUTES);
+
+		assertTrue(subscriber.completed.await(1, TimeUnit.MINUTES));
+		assertEquals(2 * FILES, subscriber.received.size());
+		assertEquals("0_1_project", subscriber.received.get(0).getProject());
+		assertTrue(explorer.awaitTermination(1, TimeUnit.MINUTES));
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+
+		StreamingExplorer explorer = new StreamingExplorer(Filter.NO_FILTER);
+		explorer.setThreads(1);
+		explorer.setBufferSize(1);
+
+		// The workers wait for the subscriber, then skip the files left once it cancels
+		OneByOne subscriber = new OneByOne(3);
+		explorer.publisher(VisitorType.OBJECT_CREATION, ObjectCreationInfo.class).subscribe(subscriber);
+		List<File> inputs = Arrays.asList(dataset().toFile());
+		explorer.start(inputs).get(1, TimeUnit.MINUTES);
+
+		assertTrue(subscriber.completed.await(1, TimeUnit.MINUTES));
+		assertEquals(3, subscriber.received.size());
+	}
+
+	@Test
+	public void testCancelWhileWaiting() throws Exception {
+
+		StreamingExplorer explorer = new StreamingExplorer(Filter.NO_FILTER);
+		explorer.setThreads(2);
+		explorer.setBufferSize(1);
+
+		// Subscribed without requesting anything, the workers wait until the cancel
+		OneByOne subscriber = new OneByOne(-1) {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+			}
+		};
+		explorer.publisher(VisitorType.OBJECT_CREATION, ObjectCreationInfo.class).subscribe(subscriber);
+		CompletableFuture<Void> done = explorer.start(Arrays.asList(dataset().toFile()));
+		Thread.sleep(500);
+		assertFalse(done.isDone());
+
+		// The publisher is closed once the workers are done
+		done.cancel(true);
+		assertTrue(subscriber.completed.await(1, TimeUnit.MINUTES));
+		assertEquals(0, subscriber.received.size());
+		assertTrue(explorer.awaitTermination(1, TimeUnit.MINUTES));
+	}
+
+}
@@ -0,0 +1,53 @@
+package de.heidelberg.collectionsexplorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+@DisplayName("Test suite for the type solvers kept by a server")
+public class TypeSolverCacheTest {
+
+	@Test
+	public void testChangedSourcesCreateANewSolver() throws Exception {
+
+		Path root = Files.createTempDirectory("project");
+		Path source = Files.write(root.resolve("A.java"), "class A {}".getBytes("utf-8"));
+
+		TypeSolverCache cache = new TypeSolverCache();
+		TypeSolver first = cache.get(root.toFile(), null, ReflectionTypeSolver::new);
+		assertSame(first, cache.get(root.toFile(), null, ReflectionTypeSolver::new));
+
+		source.toFile().setLastModified(source.toFile().lastModified() + 10000);
+		TypeSolver changed = cache.get(root.toFile(), null, ReflectionTypeSolver::new);
+		assertNotSame(first, changed);
+
+		// A new file changes the tree even with older timestamps
+		Files.write(root.resolve("B.java"), "class B {}".getBytes("utf-8")).toFile().setLastModified(0);
+		assertNotSame(changed, cache.get(root.toFile(), null, ReflectionTypeSolver::new));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() {
+
+		TypeSolverCache cache = new TypeSolverCache(2);
+		TypeSolver a = cache.get(new File("a"), null, ReflectionTypeSolver::new);
+		cache.get(new File("b"), null, ReflectionTypeSolver::new);
+		cache.get(new File("a"), null, ReflectionTypeSolver::new);
+		cache.get(new File("c"), null, ReflectionTypeSolver::new);
+
+		assertEquals(2, cache.size());
+		assertSame(a, cache.get(new File("a"), null, ReflectionTypeSolver::new));
+	}
+
+}